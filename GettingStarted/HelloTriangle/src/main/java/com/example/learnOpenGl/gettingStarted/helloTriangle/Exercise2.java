@@ -35,17 +35,19 @@ public class Exercise2 {
                     "}";
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            0.5f, 0.5f, 0.0f,
-            -0.5f, 0.5f, 0.0f,
-            0.5f, -0.5f, 0.0f
-    };
-
-    private static final float[] VERTICES2 = {
-            -0.5f, -0.5f, 0.0f,
-            -0.5f, 0.5f, 0.0f,
-            0.5f,  -0.5f, 0.0f
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(9, 0)
+                .position(0.5f, 0.5f, 0.0f)
+                .position(-0.5f, 0.5f, 0.0f)
+                .position(0.5f, -0.5f, 0.0f);
+    }
+
+    private static VertexBuilder buildVertices2() {
+        return new VertexBuilder(9, 0)
+                .position(-0.5f, -0.5f, 0.0f)
+                .position(-0.5f, 0.5f, 0.0f)
+                .position(0.5f, -0.5f, 0.0f);
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -93,13 +95,13 @@ public class Exercise2 {
         return program;
     }
 
-    private static void setUpVertexDataTriangle(int VAO, int VBO, float[] data) {
+    private static void setUpVertexDataTriangle(int VAO, int VBO, VertexBuilder data) {
         // Bind the VAO first to ensure any further modifications are stored correctly
         glBindVertexArray(VAO);
 
         // Bind the VBO and set buffers
         glBindBuffer(GL_ARRAY_BUFFER, VBO);
-        glBufferData(GL_ARRAY_BUFFER, data, GL_STATIC_DRAW);
+        glBufferData(GL_ARRAY_BUFFER, data.getVertices(), GL_STATIC_DRAW);
 
         // Configure vertex attributes
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 3 * Float.BYTES, NULL);
@@ -159,11 +161,15 @@ public class Exercise2 {
         // Initialise the vertex data
         final int VAO = glGenVertexArrays();
         final int VBO = glGenBuffers();
-        setUpVertexDataTriangle(VAO, VBO, VERTICES);
+        final VertexBuilder vertices = buildVertices();
+        setUpVertexDataTriangle(VAO, VBO, vertices);
+        vertices.close();
 
         final int VAO2 = glGenVertexArrays();
         final int VBO2 = glGenBuffers();
-        setUpVertexDataTriangle(VAO2, VBO2, VERTICES2);
+        final VertexBuilder vertices2 = buildVertices2();
+        setUpVertexDataTriangle(VAO2, VBO2, vertices2);
+        vertices2.close();
 
         // Set wireframe
         glPolygonMode(GL_FRONT_AND_BACK, GL_LINE);
@@ -43,17 +43,19 @@ public class Exercise3 {
                     "}";
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            0.5f, 0.5f, 0.0f,
-            -0.5f, 0.5f, 0.0f,
-            0.5f, -0.5f, 0.0f
-    };
-
-    private static final float[] VERTICES2 = {
-            -0.5f, -0.5f, 0.0f,
-            -0.5f, 0.5f, 0.0f,
-            0.5f,  -0.5f, 0.0f
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(9, 0)
+                .position(0.5f, 0.5f, 0.0f)
+                .position(-0.5f, 0.5f, 0.0f)
+                .position(0.5f, -0.5f, 0.0f);
+    }
+
+    private static VertexBuilder buildVertices2() {
+        return new VertexBuilder(9, 0)
+                .position(-0.5f, -0.5f, 0.0f)
+                .position(-0.5f, 0.5f, 0.0f)
+                .position(0.5f, -0.5f, 0.0f);
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -101,13 +103,13 @@ public class Exercise3 {
         return program;
     }
 
-    private static void setUpVertexDataTriangle(int VAO, int VBO, float[] data) {
+    private static void setUpVertexDataTriangle(int VAO, int VBO, VertexBuilder data) {
         // Bind the VAO first to ensure any further modifications are stored correctly
         glBindVertexArray(VAO);
 
         // Bind the VBO and set buffers
         glBindBuffer(GL_ARRAY_BUFFER, VBO);
-        glBufferData(GL_ARRAY_BUFFER, data, GL_STATIC_DRAW);
+        glBufferData(GL_ARRAY_BUFFER, data.getVertices(), GL_STATIC_DRAW);
 
         // Configure vertex attributes
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 3 * Float.BYTES, NULL);
@@ -169,15 +171,23 @@ public class Exercise3 {
         // Initialise the vertex data
         final int VAO = glGenVertexArrays();
         final int VBO = glGenBuffers();
-        setUpVertexDataTriangle(VAO, VBO, VERTICES);
+        final VertexBuilder vertices = buildVertices();
+        setUpVertexDataTriangle(VAO, VBO, vertices);
+        vertices.close();
 
         final int VAO2 = glGenVertexArrays();
         final int VBO2 = glGenBuffers();
-        setUpVertexDataTriangle(VAO2, VBO2, VERTICES2);
+        final VertexBuilder vertices2 = buildVertices2();
+        setUpVertexDataTriangle(VAO2, VBO2, vertices2);
+        vertices2.close();
 
         // Set wireframe
         glPolygonMode(GL_FRONT_AND_BACK, GL_LINE);
 
+        // Setting up the vertex data bound objects directly
+        final GlStateTracker tracker = GlStateTracker.current();
+        tracker.invalidate();
+
         // Render loop
         while(!glfwWindowShouldClose(window)) {
             // Input
@@ -187,21 +197,25 @@ public class Exercise3 {
             glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
             glClear(GL_COLOR_BUFFER_BIT);
 
-            // Use the shader program
-            glUseProgram(shaderProgramOrange);
-            glBindVertexArray(VAO);
+            // Use the shader program, the tracker skips binds that would not change anything
+            tracker.useProgram(shaderProgramOrange);
+            tracker.bindVertexArray(VAO);
             glDrawArrays(GL_TRIANGLES, 0, 3);
 
-            glUseProgram(shaderProgramYellow);
-            glBindVertexArray(VAO2);
+            tracker.useProgram(shaderProgramYellow);
+            tracker.bindVertexArray(VAO2);
             glDrawArrays(GL_TRIANGLES, 0, 3);
 
             // Check and call events
             // Swap the buffers
             glfwSwapBuffers(window);
             glfwPollEvents();
+            tracker.endFrame();
         }
 
+        System.out.println("Binds in the last frame issued: " + tracker.getLastFrameIssuedBinds()
+                + ", skipped: " + tracker.getLastFrameSkippedBinds());
+
         glfwTerminate();
     }
 }
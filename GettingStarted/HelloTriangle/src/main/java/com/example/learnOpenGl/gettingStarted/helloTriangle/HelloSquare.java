@@ -35,17 +35,16 @@ public class HelloSquare {
                     "}";
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-             0.5f,  0.5f, 0.0f, // top right
-             0.5f, -0.5f, 0.0f, // bottom right
-            -0.5f, -0.5f, 0.0f, // bottom left
-            -0.5f,  0.5f, 0.0f // top left
-    };
-
-    private static final int[] INDICES = { // note that we start from 0!
-            0, 1, 3, // first triangle
-            1, 2, 3 // second triangle
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(12, 6)
+                .position(0.5f, 0.5f, 0.0f) // top right
+                .position(0.5f, -0.5f, 0.0f) // bottom right
+                .position(-0.5f, -0.5f, 0.0f) // bottom left
+                .position(-0.5f, 0.5f, 0.0f) // top left
+                // note that we start from 0!
+                .triangle(0, 1, 3) // first triangle
+                .triangle(1, 2, 3); // second triangle
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -99,7 +98,9 @@ public class HelloSquare {
 
         // Bind the VBO and set buffers
         glBindBuffer(GL_ARRAY_BUFFER, VBO);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+        final VertexBuilder vertices = buildVertices();
+        glBufferData(GL_ARRAY_BUFFER, vertices.getVertices(), GL_STATIC_DRAW);
+        vertices.close();
 
         // Configure vertex attributes
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 3 * Float.BYTES, NULL);
@@ -116,7 +117,14 @@ public class HelloSquare {
 
         // Bind the VBO and set buffers
         glBindBuffer(GL_ARRAY_BUFFER, VBO);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+        final VertexBuilder vertices = buildVertices();
+
+        // Reorder the triangles and vertices for the vertex cache before anything is uploaded
+        final Mesh source = Mesh.copyOf(vertices, 3);
+        vertices.close();
+        final Mesh mesh = MeshProcessor.optimize("square", source);
+        source.free();
+        glBufferData(GL_ARRAY_BUFFER, mesh.vertices, GL_STATIC_DRAW);
 
         // Configure vertex attributes
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 3 * Float.BYTES, NULL);
@@ -124,7 +132,8 @@ public class HelloSquare {
 
         // Bind the EBO and set buffers
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, EBO);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, INDICES, GL_STATIC_DRAW);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.indices, GL_STATIC_DRAW);
+        mesh.free();
 
         // Reset the bind
         glBindBuffer(GL_ARRAY_BUFFER, 0);
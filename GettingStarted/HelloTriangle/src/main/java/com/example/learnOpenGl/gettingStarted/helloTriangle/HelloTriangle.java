@@ -35,11 +35,12 @@ public class HelloTriangle {
             "}";
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            -0.5f, -0.5f, 0.0f,
-             0.5f, -0.5f, 0.0f,
-             0.0f,  0.5f, 0.0f
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(9, 0)
+                .position(-0.5f, -0.5f, 0.0f)
+                .position(0.5f, -0.5f, 0.0f)
+                .position(0.0f, 0.5f, 0.0f);
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -138,7 +139,9 @@ public class HelloTriangle {
         final int VAO = glGenVertexArrays();
         glBindVertexArray(VAO);
         glBindBuffer(GL_ARRAY_BUFFER, VBO);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+        final VertexBuilder vertices = buildVertices();
+        glBufferData(GL_ARRAY_BUFFER, vertices.getVertices(), GL_STATIC_DRAW);
+        vertices.close();
 
         // Feed the vertices to OpenGL
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 3 * Float.BYTES, NULL);
@@ -0,0 +1,173 @@
+package com.example.learnOpenGl.gettingStarted.helloTriangle;
+
+import org.lwjgl.util.meshoptimizer.MeshoptOverdrawStatistics;
+import org.lwjgl.util.meshoptimizer.MeshoptVertexCacheStatistics;
+import org.lwjgl.util.meshoptimizer.MeshoptVertexFetchStatistics;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.logging.Logger;
+
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memAllocInt;
+import static org.lwjgl.system.MemoryUtil.memFloatBuffer;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memIntBuffer;
+import static org.lwjgl.util.meshoptimizer.MeshOptimizer.*;
+
+// Reorders meshes with meshoptimizer before they are uploaded, in the order its documentation prescribes:
+// merge duplicate vertices, order triangles for the post transform cache, then for overdraw without giving
+// up much of the cache gain, and finally order the vertices the way the triangles first use them
+// The vertex and index codecs compress the result for storing it on disk
+public class MeshProcessor {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    // Cache size the statistics are simulated with, a common size for the post transform cache
+    private static final int CACHE_SIZE = 16;
+
+    // How much worse the cache efficiency may get in exchange for less overdraw
+    private static final float OVERDRAW_THRESHOLD = 1.05f;
+
+    // How a mesh uses the vertex pipeline, lower is better for all of them
+    public static class Statistics {
+        // Vertices transformed per triangle, 0.5 is the best a regular grid can do and 3 the worst
+        final float acmr;
+
+        // Vertices transformed per vertex in the mesh, 1 means every vertex is transformed once
+        final float atvr;
+
+        // Bytes fetched from the vertex buffer compared to its size
+        final float overfetch;
+
+        // Pixels shaded per pixel covered, averaged over views from all sides
+        final float overdraw;
+
+        private Statistics(float acmr, float atvr, float overfetch, float overdraw) {
+            this.acmr = acmr;
+            this.atvr = atvr;
+            this.overfetch = overfetch;
+            this.overdraw = overdraw;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ACMR %.3f, ATVR %.3f, overfetch %.3f, overdraw %.3f", acmr, atvr, overfetch, overdraw);
+        }
+    }
+
+    static Statistics analyze(Mesh mesh) {
+        final int vertexCount = mesh.getVertexCount();
+        final MeshoptVertexCacheStatistics cache = MeshoptVertexCacheStatistics.malloc();
+        final MeshoptVertexFetchStatistics fetch = MeshoptVertexFetchStatistics.malloc();
+        final MeshoptOverdrawStatistics overdraw = MeshoptOverdrawStatistics.malloc();
+
+        meshopt_analyzeVertexCache(mesh.indices, vertexCount, CACHE_SIZE, 0, 0, cache);
+        meshopt_analyzeVertexFetch(mesh.indices, vertexCount, mesh.vertexSize, fetch);
+        meshopt_analyzeOverdraw(mesh.indices, positions(mesh), vertexCount, mesh.vertexSize, overdraw);
+        final Statistics statistics = new Statistics(cache.acmr(), cache.atvr(), fetch.overfetch(), overdraw.overdraw());
+
+        cache.free();
+        fetch.free();
+        overdraw.free();
+        return statistics;
+    }
+
+    // Returns an optimized copy, the given mesh is left as it was
+    static Mesh optimize(Mesh mesh) {
+        final int indexCount = mesh.getIndexCount();
+
+        // Merge vertices that are byte for byte identical
+        final IntBuffer remap = memAllocInt(mesh.getVertexCount());
+        final int vertexCount = (int) meshopt_generateVertexRemap(remap, mesh.indices, indexCount, mesh.vertices, mesh.vertexSize);
+        final ByteBuffer uniqueVertices = memAlloc(vertexCount * mesh.vertexSize);
+        final IntBuffer indices = memAllocInt(indexCount);
+        final IntBuffer scratch = memAllocInt(indexCount);
+        meshopt_remapVertexBuffer(uniqueVertices, mesh.vertices, mesh.vertexSize, remap);
+        meshopt_remapIndexBuffer(indices, mesh.indices, remap);
+        memFree(remap);
+
+        meshopt_optimizeVertexCache(scratch, indices, vertexCount);
+        final Mesh unique = new Mesh(uniqueVertices, mesh.vertexSize, indices);
+        meshopt_optimizeOverdraw(indices, scratch, positions(unique), vertexCount, mesh.vertexSize, OVERDRAW_THRESHOLD);
+        memFree(scratch);
+
+        // Rewrites the indices in place to the new vertex order
+        final ByteBuffer vertices = memAlloc(vertexCount * mesh.vertexSize);
+        meshopt_optimizeVertexFetch(vertices, indices, uniqueVertices, vertexCount, mesh.vertexSize);
+        memFree(uniqueVertices);
+
+        return new Mesh(vertices, mesh.vertexSize, indices);
+    }
+
+    // Optimizes and logs the statistics before and after
+    static Mesh optimize(String name, Mesh mesh) {
+        final Statistics before = analyze(mesh);
+        final Mesh optimized = optimize(mesh);
+        final Statistics after = analyze(optimized);
+        logger.info(String.format("%s: %d triangles, %d to %d vertices%n  before: %s%n  after:  %s",
+                name, mesh.getIndexCount() / 3, mesh.getVertexCount(), optimized.getVertexCount(), before, after));
+        return optimized;
+    }
+
+    // The vertex codec needs a vertex size that is a multiple of 4 and at most 256, it compresses best after
+    // quantizing, e.g. with VertexFormat. The returned buffer is allocated with memAlloc and freed with memFree
+    static ByteBuffer encodeVertices(ByteBuffer vertices, int vertexSize) {
+        final int vertexCount = vertices.remaining() / vertexSize;
+        final ByteBuffer encoded = memAlloc((int) meshopt_encodeVertexBufferBound(vertexCount, vertexSize));
+        encoded.limit((int) meshopt_encodeVertexBuffer(encoded, vertices, vertexCount, vertexSize));
+        return encoded;
+    }
+
+    // Decoding keeps every triangle and its winding, but may start it at a different corner
+    static ByteBuffer encodeIndices(Mesh mesh) {
+        final ByteBuffer encoded = memAlloc((int) meshopt_encodeIndexBufferBound(mesh.getIndexCount(), mesh.getVertexCount()));
+        encoded.limit((int) meshopt_encodeIndexBuffer(encoded, mesh.indices));
+        return encoded;
+    }
+
+    // Returns null when the data is corrupt
+    static ByteBuffer decodeVertices(ByteBuffer encoded, int vertexCount, int vertexSize) {
+        final ByteBuffer vertices = memAlloc(vertexCount * vertexSize);
+        if (meshopt_decodeVertexBuffer(vertices, vertexCount, vertexSize, encoded) != 0) {
+            logger.severe("Failed to decode " + vertexCount + " vertices");
+            memFree(vertices);
+            return null;
+        }
+        return vertices;
+    }
+
+    static IntBuffer decodeIndices(ByteBuffer encoded, int indexCount) {
+        final ByteBuffer indices = memAlloc(indexCount * Integer.BYTES);
+        if (meshopt_decodeIndexBuffer(indices, indexCount, Integer.BYTES, encoded) != 0) {
+            logger.severe("Failed to decode " + indexCount + " indices");
+            memFree(indices);
+            return null;
+        }
+        return memIntBuffer(memAddress(indices), indexCount);
+    }
+
+    // Whether every triangle has the same corners in the same winding, starting at any of them
+    static boolean sameTriangles(IntBuffer decoded, IntBuffer indices) {
+        if (decoded.remaining() != indices.remaining()) {
+            return false;
+        }
+        for (int first = 0; first < indices.remaining(); first += 3) {
+            boolean same = false;
+            for (int rotation = 0; rotation < 3 && !same; rotation++) {
+                same = decoded.get(first) == indices.get(first + rotation)
+                        && decoded.get(first + 1) == indices.get(first + (rotation + 1) % 3)
+                        && decoded.get(first + 2) == indices.get(first + (rotation + 2) % 3);
+            }
+            if (!same) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FloatBuffer positions(Mesh mesh) {
+        return memFloatBuffer(memAddress(mesh.vertices), mesh.vertices.remaining() / Float.BYTES);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.learnOpenGl.gettingStarted.helloTriangle;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.system.MemoryUtil.memByteBuffer;
+import static org.lwjgl.system.MemoryUtil.memIntBuffer;
+import static org.lwjgl.system.MemoryUtil.memPutFloat;
+import static org.lwjgl.system.MemoryUtil.memPutInt;
+import static org.lwjgl.system.jemalloc.JEmalloc.nje_free;
+import static org.lwjgl.system.jemalloc.JEmalloc.nje_malloc;
+import static org.lwjgl.system.jemalloc.JEmalloc.nje_realloc;
+
+// Writes vertex attributes and indices straight into off-heap memory from jemalloc, so the finished
+// buffers go to glBufferData as they are instead of LWJGL copying a float[] into native memory first
+// For geometry rebuilt every frame call reset() and write again, the memory is kept and only grows
+public class VertexBuilder implements AutoCloseable {
+    private long vertices;
+    private long vertexCapacity;
+    private long vertexBytes = 0;
+
+    private long indices;
+    private long indexCapacity;
+    private long indexBytes = 0;
+
+    // Capacities are only a hint, the buffers grow when more is written
+    VertexBuilder(int vertexFloats, int indexCount) {
+        vertexCapacity = Math.max(1, vertexFloats) * (long) Float.BYTES;
+        indexCapacity = Math.max(1, indexCount) * (long) Integer.BYTES;
+        vertices = allocate(vertexCapacity);
+        indices = allocate(indexCapacity);
+    }
+
+    VertexBuilder position(float x, float y) {
+        return put(x, y);
+    }
+
+    VertexBuilder position(float x, float y, float z) {
+        return put(x, y, z);
+    }
+
+    VertexBuilder color(float r, float g, float b) {
+        return put(r, g, b);
+    }
+
+    VertexBuilder uv(float u, float v) {
+        return put(u, v);
+    }
+
+    // Texture coordinates with an array layer as third component
+    VertexBuilder uvw(float u, float v, float w) {
+        return put(u, v, w);
+    }
+
+    VertexBuilder triangle(int a, int b, int c) {
+        if (indexBytes + 3 * Integer.BYTES > indexCapacity) {
+            indexCapacity = Math.max(indexCapacity * 2, indexBytes + 3 * Integer.BYTES);
+            indices = reallocate(indices, indexCapacity);
+        }
+        memPutInt(indices + indexBytes, a);
+        memPutInt(indices + indexBytes + 4, b);
+        memPutInt(indices + indexBytes + 8, c);
+        indexBytes += 3 * Integer.BYTES;
+        return this;
+    }
+
+    // Views of what has been written, valid until the next write, reset() or close()
+    ByteBuffer getVertices() {
+        return memByteBuffer(vertices, (int) vertexBytes);
+    }
+
+    IntBuffer getIndices() {
+        return memIntBuffer(indices, (int) (indexBytes / Integer.BYTES));
+    }
+
+    int getIndexCount() {
+        return (int) (indexBytes / Integer.BYTES);
+    }
+
+    // Starts over without giving the memory back
+    void reset() {
+        vertexBytes = 0;
+        indexBytes = 0;
+    }
+
+    @Override
+    public void close() {
+        nje_free(vertices);
+        nje_free(indices);
+        vertices = 0;
+        indices = 0;
+    }
+
+    private VertexBuilder put(float a, float b) {
+        ensureVertexCapacity(2);
+        memPutFloat(vertices + vertexBytes, a);
+        memPutFloat(vertices + vertexBytes + 4, b);
+        vertexBytes += 2 * Float.BYTES;
+        return this;
+    }
+
+    private VertexBuilder put(float a, float b, float c) {
+        ensureVertexCapacity(3);
+        memPutFloat(vertices + vertexBytes, a);
+        memPutFloat(vertices + vertexBytes + 4, b);
+        memPutFloat(vertices + vertexBytes + 8, c);
+        vertexBytes += 3 * Float.BYTES;
+        return this;
+    }
+
+    private void ensureVertexCapacity(int floats) {
+        final long required = vertexBytes + (long) floats * Float.BYTES;
+        if (required > vertexCapacity) {
+            vertexCapacity = Math.max(vertexCapacity * 2, required);
+            vertices = reallocate(vertices, vertexCapacity);
+        }
+    }
+
+    private static long allocate(long size) {
+        final long address = nje_malloc(size);
+        if (address == 0) {
+            throw new OutOfMemoryError("Failed to allocate " + size + " bytes of vertex data");
+        }
+        return address;
+    }
+
+    private static long reallocate(long address, long size) {
+        final long reallocated = nje_realloc(address, size);
+        if (reallocated == 0) {
+            throw new OutOfMemoryError("Failed to grow vertex data to " + size + " bytes");
+        }
+        return reallocated;
+    }
+}
@@ -20,12 +20,13 @@ public class Exercise1 {
     private static final URL FRAGMENT_SHADER_PATH = Exercise1.class.getClassLoader().getResource("shader.fs");
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            // Positions        // Colors
-             0.5f,  0.5f, 0.0f, 1.0f, 0.0f, 0.0f, // Bottom right
-            -0.5f,  0.5f, 0.0f, 0.0f, 1.0f, 0.0f, // Bottom left
-            -0.0f, -0.5f, 0.0f, 0.0f, 0.0f, 1.0f  // Top
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(18, 0)
+                // Positions        // Colors
+                .position(0.5f, 0.5f, 0.0f).color(1.0f, 0.0f, 0.0f) // Bottom right
+                .position(-0.5f, 0.5f, 0.0f).color(0.0f, 1.0f, 0.0f) // Bottom left
+                .position(-0.0f, -0.5f, 0.0f).color(0.0f, 0.0f, 1.0f); // Top
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -80,7 +81,9 @@ public class Exercise1 {
         final int VAO = glGenVertexArrays();
         glBindVertexArray(VAO);
         glBindBuffer(GL_ARRAY_BUFFER, VBO);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+        final VertexBuilder vertices = buildVertices();
+        glBufferData(GL_ARRAY_BUFFER, vertices.getVertices(), GL_STATIC_DRAW);
+        vertices.close();
 
         // Feed the vertices to OpenGL
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 6 * Float.BYTES, NULL);
@@ -20,12 +20,13 @@ public class Exercise2 {
     private static final URL FRAGMENT_SHADER_PATH = Exercise2.class.getClassLoader().getResource("shader.fs");
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            // Positions        // Colors
-            -0.5f, -0.5f, 0.0f, 1.0f, 0.0f, 0.0f, // Bottom left
-            0.5f, -0.5f, 0.0f, 0.0f, 1.0f, 0.0f, //  Bottom right
-            0.0f,  0.5f, 0.0f, 0.0f, 0.0f, 1.0f  //  Top
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(18, 0)
+                // Positions        // Colors
+                .position(-0.5f, -0.5f, 0.0f).color(1.0f, 0.0f, 0.0f) // Bottom left
+                .position(0.5f, -0.5f, 0.0f).color(0.0f, 1.0f, 0.0f) // Bottom right
+                .position(0.0f, 0.5f, 0.0f).color(0.0f, 0.0f, 1.0f); // Top
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -75,12 +76,17 @@ public class Exercise2 {
         CustomShader shader = new CustomShader(VERTEX_SHADER_PATH, FRAGMENT_SHADER_PATH);
         shader.use();
 
+        // Resolve the per-frame uniform once instead of looking it up by name every frame
+        final int horizontalOffsetHandle = shader.getUniformHandle("horizontalOffset");
+
         // Initialise the vertex data
         final int VBO = glGenBuffers();
         final int VAO = glGenVertexArrays();
         glBindVertexArray(VAO);
         glBindBuffer(GL_ARRAY_BUFFER, VBO);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+        final VertexBuilder vertices = buildVertices();
+        glBufferData(GL_ARRAY_BUFFER, vertices.getVertices(), GL_STATIC_DRAW);
+        vertices.close();
 
         // Feed the vertices to OpenGL
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 6 * Float.BYTES, NULL);
@@ -103,7 +109,7 @@ public class Exercise2 {
 
             // Use the shader program
             shader.use();
-            shader.setFloat("horizontalOffset", 0.5f);
+            shader.setFloat(horizontalOffsetHandle, 0.5f);
 
             // Tech not needed as there is only one VBOe but that is not a realistic use case
             glBindVertexArray(VAO);
@@ -0,0 +1,98 @@
+package com.example.learnOpenGl.gettingStarted.shaders;
+
+import org.lwjgl.opengl.GL;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static java.lang.System.exit;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL11.glFinish;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+// Compares program creation time without a cache, with a cold cache and with a warm cache
+// Runs headless (e.g. LIBGL_ALWAYS_SOFTWARE=1 xvfb-run) on Mesa llvmpipe, set MESA_SHADER_CACHE_DISABLE=true
+// so that the driver's own disk cache does not hide the cold numbers
+public class ProgramBinaryCacheBenchmark {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int ITERATIONS = 20;
+
+    // Vertex and fragment shader
+    private static final URL VERTEX_SHADER_PATH = ProgramBinaryCacheBenchmark.class.getClassLoader().getResource("shader.vs");
+    private static final URL FRAGMENT_SHADER_PATH = ProgramBinaryCacheBenchmark.class.getClassLoader().getResource("shader.fs");
+
+    public static void main(String[] args) throws IOException {
+        // Initialize glfw with an invisible window, only the context is needed
+        glfwInit();
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE);
+
+        final long window = glfwCreateWindow(1, 1, "LearnOpenGl", NULL, NULL);
+        if (window == NULL) {
+            System.out.println("Failed to create GLFW window");
+            glfwTerminate();
+            exit(-1);
+        }
+        glfwMakeContextCurrent(window);
+        GL.createCapabilities();
+
+        if (!ProgramBinaryCache.isSupported()) {
+            logger.severe("Program binaries are not supported by this driver");
+            glfwTerminate();
+            exit(-1);
+        }
+
+        final Path cacheDirectory = Files.createTempDirectory("programBinaryCache");
+
+        System.clearProperty(ProgramBinaryCache.CACHE_DIR_PROPERTY);
+        final double uncached = measure(null);
+
+        System.setProperty(ProgramBinaryCache.CACHE_DIR_PROPERTY, cacheDirectory.toString());
+        final double cold = measure(cacheDirectory);
+
+        // Populate the cache once, then every iteration is a hit
+        new CustomShader(VERTEX_SHADER_PATH, FRAGMENT_SHADER_PATH).delete();
+        final double warm = measure(null);
+
+        logger.info(String.format("Program creation (average of %d): no cache %.3f ms, cold cache %.3f ms, warm cache %.3f ms",
+                ITERATIONS, uncached, cold, warm));
+
+        clear(cacheDirectory);
+        Files.deleteIfExists(cacheDirectory);
+        glfwTerminate();
+    }
+
+    // Returns the average creation time in milliseconds, emptying the given directory before every iteration
+    private static double measure(Path directoryToClear) throws IOException {
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (directoryToClear != null) {
+                clear(directoryToClear);
+            }
+
+            final long start = System.nanoTime();
+            CustomShader shader = new CustomShader(VERTEX_SHADER_PATH, FRAGMENT_SHADER_PATH);
+            glFinish();
+            total += System.nanoTime() - start;
+
+            shader.delete();
+        }
+        return total / (ITERATIONS * 1_000_000.0);
+    }
+
+    private static void clear(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
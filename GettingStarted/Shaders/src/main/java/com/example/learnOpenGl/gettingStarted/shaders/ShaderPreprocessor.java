@@ -0,0 +1,135 @@
+package com.example.learnOpenGl.gettingStarted.shaders;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memUTF8;
+import static org.lwjgl.util.xxhash.XXHash.XXH64;
+
+// Expands #include directives against the classpath and injects #define permutation keys
+// #line directives are emitted so that compile errors can be traced back to the original files
+public class ShaderPreprocessor {
+    private static final Logger logger = Logger.getAnonymousLogger();
+    private static final Pattern INCLUDE = Pattern.compile("^\\s*#\\s*include\\s+[\"<]([^\">]+)[\">]");
+    private static final Pattern VERSION = Pattern.compile("^\\s*#\\s*version\\b");
+    private static final Function<String, URL> CLASSPATH = name -> ShaderPreprocessor.class.getClassLoader().getResource(name);
+
+    // Sorted so that the same set of defines always expands to the same source and hash
+    private final Map<String, String> defines;
+    private final Function<String, URL> includeResolver;
+    private final List<String> files = new ArrayList<>();
+    private final Set<String> included = new HashSet<>();
+    private final StringBuilder builder = new StringBuilder();
+
+    private ShaderPreprocessor(Map<String, String> defines, Function<String, URL> includeResolver) {
+        this.defines = new TreeMap<>(defines);
+        this.includeResolver = includeResolver;
+    }
+
+    static ShaderSource process(URL path, Map<String, String> defines) {
+        return process(path, defines, CLASSPATH);
+    }
+
+    // The resolver maps include names to their location, returning null for unknown files
+    static ShaderSource process(URL path, Map<String, String> defines, Function<String, URL> includeResolver) {
+        ShaderPreprocessor preprocessor = new ShaderPreprocessor(defines, includeResolver);
+        preprocessor.expand(path, fileName(path), true);
+
+        final String text = preprocessor.builder.toString();
+        return new ShaderSource(text, hash(text), preprocessor.files);
+    }
+
+    // Stable 64 bit hash of the given text, used as key for compile caches
+    static long hash(CharSequence text) {
+        ByteBuffer bytes = memUTF8(text, false);
+        try {
+            return XXH64(bytes, 0L);
+        } finally {
+            memFree(bytes);
+        }
+    }
+
+    private void expand(URL path, String name, boolean root) {
+        final int fileIndex = files.size();
+        files.add(name);
+
+        final String[] lines = CustomShader.readFile(path).split("\n");
+
+        // Defines have to follow the #version directive, which must stay the first statement
+        int versionLine = -1;
+        if (root) {
+            for (int i = 0; i < lines.length && versionLine < 0; i++) {
+                if (VERSION.matcher(lines[i]).find()) {
+                    versionLine = i;
+                }
+            }
+            if (versionLine < 0) {
+                appendDefines();
+                appendLine(1, fileIndex);
+            }
+        } else {
+            appendLine(1, fileIndex);
+        }
+
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i];
+            Matcher include = INCLUDE.matcher(line);
+
+            if (i == versionLine) {
+                builder.append(line).append('\n');
+                appendDefines();
+                appendLine(i + 2, fileIndex);
+            } else if (!root && VERSION.matcher(line).find()) {
+                // Included files may declare a version for standalone validation, drop it
+                builder.append('\n');
+            } else if (include.find()) {
+                final String includeName = include.group(1);
+                final URL includePath = includeResolver.apply(includeName);
+
+                if (includePath == null) {
+                    logger.severe("Shader include not found: " + includeName + " (" + name + ":" + (i + 1) + ")");
+                    builder.append('\n');
+                } else if (!included.add(includeName)) {
+                    // Every file is expanded once per shader, like #pragma once
+                    builder.append('\n');
+                } else {
+                    expand(includePath, includeName, false);
+                    appendLine(i + 2, fileIndex);
+                }
+            } else {
+                builder.append(line).append('\n');
+            }
+        }
+    }
+
+    private void appendDefines() {
+        for (Map.Entry<String, String> define : defines.entrySet()) {
+            builder.append("#define ").append(define.getKey());
+            if (define.getValue() != null && !define.getValue().isEmpty()) {
+                builder.append(' ').append(define.getValue());
+            }
+            builder.append('\n');
+        }
+    }
+
+    // The line following the directive gets the given number within the given source string
+    private void appendLine(int line, int fileIndex) {
+        builder.append("#line ").append(line).append(' ').append(fileIndex).append('\n');
+    }
+
+    static String fileName(URL path) {
+        final String file = path.getPath();
+        return file.substring(file.lastIndexOf('/') + 1);
+    }
+}
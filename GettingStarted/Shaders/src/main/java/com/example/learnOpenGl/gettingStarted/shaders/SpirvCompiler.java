@@ -0,0 +1,385 @@
+package com.example.learnOpenGl.gettingStarted.shaders;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.util.spvc.SpvcReflectedResource;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.lwjgl.util.shaderc.Shaderc.*;
+import static org.lwjgl.util.spvc.Spv.*;
+import static org.lwjgl.util.spvc.Spvc.*;
+
+// Build time step that compiles every .vs/.fs in a directory to SPIR-V for GL_ARB_gl_spirv and writes
+// a reflection file next to it with the inputs, uniforms, samplers and uniform blocks it uses.
+// Usage: SpirvCompiler <shader source directory> <output directory>, run by the spirv Maven profile
+public class SpirvCompiler {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: SpirvCompiler <shader source directory> <output directory>");
+            System.exit(-1);
+        }
+
+        final Path sourceDirectory = Paths.get(args[0]);
+        final Path outputDirectory = Paths.get(args[1]);
+        Files.createDirectories(outputDirectory);
+
+        List<Path> shaders;
+        try (Stream<Path> files = Files.list(sourceDirectory)) {
+            shaders = files
+                    .filter(file -> file.toString().endsWith(".vs") || file.toString().endsWith(".fs"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        final long compiler = shaderc_compiler_initialize();
+        final long options = shaderc_compile_options_initialize();
+        shaderc_compile_options_set_target_env(options, shaderc_target_env_opengl, shaderc_env_version_opengl_4_5);
+
+        // Default block uniforms and samplers need explicit locations and bindings in SPIR-V
+        shaderc_compile_options_set_auto_map_locations(options, true);
+        shaderc_compile_options_set_auto_bind_uniforms(options, true);
+
+        Map<Path, ByteBuffer> modules = new LinkedHashMap<>();
+        Map<Path, Long> sourceHashes = new HashMap<>();
+        try {
+            for (Path shader : shaders) {
+                // Includes resolve against the same directory, exactly like at runtime
+                ShaderSource source = ShaderPreprocessor.process(shader.toUri().toURL(), Collections.emptyMap(),
+                        name -> toUrl(sourceDirectory.resolve(name)));
+
+                ByteBuffer module = compile(compiler, options, shader.getFileName().toString(), source);
+                if (module != null) {
+                    modules.put(shader, module);
+                    sourceHashes.put(shader, source.hash);
+                }
+            }
+        } finally {
+            shaderc_compile_options_release(options);
+            shaderc_compiler_release(compiler);
+        }
+
+        // Uniform locations are mapped per stage starting at 0, which collides once a vertex and fragment
+        // shader are linked together. Give every uniform name in the directory its own range of locations
+        // instead, matrices take one location per column and arrays one per element
+        SortedMap<String, Integer> locationCounts = new TreeMap<>();
+        for (ByteBuffer module : modules.values()) {
+            for (Map.Entry<String, Integer> uniform : locationCounts(module).entrySet()) {
+                locationCounts.merge(uniform.getKey(), uniform.getValue(), Math::max);
+            }
+        }
+        Map<String, Integer> uniformLocations = new HashMap<>();
+        int nextLocation = 0;
+        for (Map.Entry<String, Integer> uniform : locationCounts.entrySet()) {
+            uniformLocations.put(uniform.getKey(), nextLocation);
+            nextLocation += uniform.getValue();
+        }
+
+        int failures = shaders.size() - modules.size();
+        for (Map.Entry<Path, ByteBuffer> module : modules.entrySet()) {
+            IntBuffer words = words(module.getValue());
+            for (Map.Entry<String, UniformVariable> uniform : uniformVariables(words).entrySet()) {
+                words.put(uniform.getValue().locationWord, uniformLocations.get(uniform.getKey()));
+            }
+
+            if (!write(module.getKey().getFileName().toString(), module.getValue(), sourceHashes.get(module.getKey()), outputDirectory)) {
+                failures++;
+            }
+        }
+
+        logger.info("Compiled " + (shaders.size() - failures) + " of " + shaders.size() + " shaders to SPIR-V");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static ByteBuffer compile(long compiler, long options, String fileName, ShaderSource source) {
+        final long result = shaderc_compile_into_spv(compiler, source.text,
+                isVertexShader(fileName) ? shaderc_vertex_shader : shaderc_fragment_shader, fileName, "main", options);
+        try {
+            if (shaderc_result_get_compilation_status(result) != shaderc_compilation_status_success) {
+                logger.severe("SPIR-V compilation failed for " + fileName + ": " + source.translateLog(shaderc_result_get_error_message(result)));
+                return null;
+            }
+
+            // The result owns its bytes, keep a copy around until every module has been compiled
+            ByteBuffer bytes = shaderc_result_get_bytes(result);
+            ByteBuffer module = BufferUtils.createByteBuffer(bytes.remaining());
+            module.put(bytes).flip();
+            return module;
+        } finally {
+            shaderc_result_release(result);
+        }
+    }
+
+    private static boolean write(String fileName, ByteBuffer module, long sourceHash, Path outputDirectory) throws IOException {
+        // Parsing the module for reflection doubles as validation of the generated SPIR-V
+        String reflection = reflect(module, isVertexShader(fileName) ? "vertex" : "fragment", sourceHash);
+        if (reflection == null) {
+            logger.severe("Generated SPIR-V for " + fileName + " failed validation");
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(outputDirectory.resolve(fileName + SpirvShaderLoader.SPIRV_EXTENSION),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = module.duplicate();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(outputDirectory.resolve(fileName + SpirvShaderLoader.REFLECTION_EXTENSION), StandardCharsets.UTF_8)) {
+            writer.write(reflection);
+        }
+        return true;
+    }
+
+    // The hash of the preprocessed GLSL lets SpirvShaderLoader notice modules that are older than their source
+    private static String reflect(ByteBuffer module, String stage, long sourceHash) {
+        IntBuffer words = words(module);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer pointer = stack.mallocPointer(1);
+            if (spvc_context_create(pointer) != SPVC_SUCCESS) {
+                return null;
+            }
+            final long context = pointer.get(0);
+
+            try {
+                if (spvc_context_parse_spirv(context, words, words.remaining(), pointer) != SPVC_SUCCESS) {
+                    logger.severe(spvc_context_get_last_error_string(context));
+                    return null;
+                }
+                final long ir = pointer.get(0);
+
+                if (spvc_context_create_compiler(context, SPVC_BACKEND_NONE, ir, SPVC_CAPTURE_MODE_TAKE_OWNERSHIP, pointer) != SPVC_SUCCESS) {
+                    logger.severe(spvc_context_get_last_error_string(context));
+                    return null;
+                }
+                final long compiler = pointer.get(0);
+
+                if (spvc_compiler_create_shader_resources(compiler, pointer) != SPVC_SUCCESS) {
+                    logger.severe(spvc_context_get_last_error_string(context));
+                    return null;
+                }
+                final long resources = pointer.get(0);
+
+                StringBuilder json = new StringBuilder();
+                json.append("{\n  \"stage\": \"").append(stage).append("\",\n");
+                json.append("  \"sourceHash\": \"").append(String.format("%016x", sourceHash)).append("\",\n");
+                appendResources(json, "inputs", compiler, resources, SPVC_RESOURCE_TYPE_STAGE_INPUT, SpvDecorationLocation, "location");
+                json.append(",\n");
+                appendEntries(json, "uniforms", defaultBlockUniforms(words));
+                json.append(",\n");
+                appendResources(json, "samplers", compiler, resources, SPVC_RESOURCE_TYPE_SAMPLED_IMAGE, SpvDecorationBinding, "binding");
+                json.append(",\n");
+                appendResources(json, "uniformBlocks", compiler, resources, SPVC_RESOURCE_TYPE_UNIFORM_BUFFER, SpvDecorationBinding, "binding");
+                json.append("\n}\n");
+                return json.toString();
+            } finally {
+                spvc_context_destroy(context);
+            }
+        }
+    }
+
+    // Number of locations every loose uniform of the module takes up, 1 for uniforms whose type cannot be resolved
+    private static Map<String, Integer> locationCounts(ByteBuffer module) {
+        IntBuffer words = words(module);
+        Map<String, UniformVariable> uniforms = uniformVariables(words);
+        Map<String, Integer> counts = new HashMap<>();
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer pointer = stack.mallocPointer(1);
+            long context = 0;
+            long compiler = 0;
+            if (spvc_context_create(pointer) == SPVC_SUCCESS) {
+                context = pointer.get(0);
+                if (spvc_context_parse_spirv(context, words, words.remaining(), pointer) == SPVC_SUCCESS
+                        && spvc_context_create_compiler(context, SPVC_BACKEND_NONE, pointer.get(0), SPVC_CAPTURE_MODE_TAKE_OWNERSHIP, pointer) == SPVC_SUCCESS) {
+                    compiler = pointer.get(0);
+                }
+            }
+
+            for (Map.Entry<String, UniformVariable> uniform : uniforms.entrySet()) {
+                final int typeId = uniform.getValue().typeId;
+                counts.put(uniform.getKey(), compiler != 0 && typeId != 0 ? locationCount(compiler, typeId) : 1);
+            }
+
+            if (context != 0) {
+                spvc_context_destroy(context);
+            }
+        }
+        return counts;
+    }
+
+    // One location per matrix column, multiplied by every array dimension, structs take the sum of their members
+    private static int locationCount(long compiler, int typeId) {
+        final long type = spvc_compiler_get_type_handle(compiler, typeId);
+
+        int count = 0;
+        if (spvc_type_get_basetype(type) == SPVC_BASETYPE_STRUCT) {
+            for (int member = 0; member < spvc_type_get_num_member_types(type); member++) {
+                count += locationCount(compiler, spvc_type_get_member_type(type, member));
+            }
+        } else {
+            count = spvc_type_get_columns(type);
+        }
+
+        for (int dimension = 0; dimension < spvc_type_get_num_array_dimensions(type); dimension++) {
+            // Sizes given by a constant are stored as the id of that constant
+            final int size = spvc_type_get_array_dimension(type, dimension);
+            count *= spvc_type_array_dimension_is_literal(type, dimension)
+                    ? size
+                    : spvc_constant_get_scalar_u32(spvc_compiler_get_constant_handle(compiler, size), 0, 0);
+        }
+        return Math.max(count, 1);
+    }
+
+    private static void appendResources(StringBuilder json, String section, long compiler, long resources, int type, int decoration, String key) {
+        List<String> entries = new ArrayList<>();
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer list = stack.mallocPointer(1);
+            PointerBuffer count = stack.mallocPointer(1);
+            spvc_resources_get_resource_list_for_type(resources, type, list, count);
+
+            for (SpvcReflectedResource resource : SpvcReflectedResource.create(list.get(0), (int) count.get(0))) {
+                // Blocks declared without an instance name are only known by their type name
+                String name = resource.nameString();
+                if (name.isEmpty()) {
+                    name = spvc_compiler_get_name(compiler, resource.base_type_id());
+                }
+                entries.add(entry(name, key, spvc_compiler_get_decoration(compiler, resource.id(), decoration)));
+            }
+        }
+
+        appendEntries(json, section, entries);
+    }
+
+    // SPIRV-Cross does not list loose uniforms for OpenGL, so walk the module for UniformConstant variables
+    private static List<String> defaultBlockUniforms(IntBuffer words) {
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<String, UniformVariable> uniform : uniformVariables(words).entrySet()) {
+            entries.add(entry(uniform.getKey(), "location", words.get(uniform.getValue().locationWord)));
+        }
+        return entries;
+    }
+
+    // Maps every named UniformConstant variable to the word holding its Location decoration and its type
+    private static Map<String, UniformVariable> uniformVariables(IntBuffer words) {
+        Map<Integer, String> names = new HashMap<>();
+        Map<Integer, Integer> locations = new HashMap<>();
+        Map<Integer, Integer> pointees = new HashMap<>();
+        Map<Integer, Integer> variables = new LinkedHashMap<>();
+
+        // Skip the five word header, every instruction starts with its word count and opcode
+        int index = 5;
+        while (index < words.limit()) {
+            final int instruction = words.get(index);
+            final int wordCount = instruction >>> 16;
+            final int opcode = instruction & 0xFFFF;
+            if (wordCount == 0) {
+                break;
+            }
+
+            if (opcode == SpvOpName) {
+                names.put(words.get(index + 1), literalString(words, index + 2, wordCount - 2));
+            } else if (opcode == SpvOpDecorate && words.get(index + 2) == SpvDecorationLocation) {
+                locations.put(words.get(index + 1), index + 3);
+            } else if (opcode == SpvOpTypePointer) {
+                pointees.put(words.get(index + 1), words.get(index + 3));
+            } else if (opcode == SpvOpVariable && words.get(index + 3) == SpvStorageClassUniformConstant) {
+                variables.put(words.get(index + 2), words.get(index + 1));
+            }
+            index += wordCount;
+        }
+
+        // Variables are pointers, the location count depends on the type they point to
+        Map<String, UniformVariable> uniforms = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> variable : variables.entrySet()) {
+            final Integer location = locations.get(variable.getKey());
+            final String name = names.get(variable.getKey());
+            if (location != null && name != null) {
+                uniforms.put(name, new UniformVariable(location, pointees.getOrDefault(variable.getValue(), 0)));
+            }
+        }
+        return uniforms;
+    }
+
+    // SPIR-V modules are in host byte order when they come straight from shaderc
+    private static IntBuffer words(ByteBuffer module) {
+        return module.duplicate().order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static boolean isVertexShader(String fileName) {
+        return fileName.endsWith(".vs");
+    }
+
+    private static String literalString(IntBuffer words, int offset, int wordCount) {
+        ByteBuffer bytes = ByteBuffer.allocate(wordCount * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < wordCount; i++) {
+            bytes.putInt(words.get(offset + i));
+        }
+
+        int length = 0;
+        while (length < bytes.capacity() && bytes.get(length) != 0) {
+            length++;
+        }
+        return new String(bytes.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    // One entry per line, which is what SpirvShaderLoader relies on when reading the file back
+    private static String entry(String name, String key, int value) {
+        return "{\"name\": \"" + name + "\", \"" + key + "\": " + value + "}";
+    }
+
+    private static void appendEntries(StringBuilder json, String section, List<String> entries) {
+        json.append("  \"").append(section).append("\": [");
+        for (int i = 0; i < entries.size(); i++) {
+            json.append(i == 0 ? "\n" : ",\n").append("    ").append(entries.get(i));
+        }
+        json.append(entries.isEmpty() ? "]" : "\n  ]");
+    }
+
+    private static URL toUrl(Path file) {
+        try {
+            return Files.isRegularFile(file) ? file.toUri().toURL() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static class UniformVariable {
+        private final int locationWord;
+        private final int typeId;
+
+        private UniformVariable(int locationWord, int typeId) {
+            this.locationWord = locationWord;
+            this.typeId = typeId;
+        }
+    }
+}
@@ -5,4 +5,4 @@ out vec4 FragColor;
 
 void main() {
   FragColor = vec4(ourColor, 1.0f);
-};
\ No newline at end of file
+}
\ No newline at end of file
@@ -9,4 +9,4 @@ void main() {
   gl_Position = vec4(aPos, 1.0);
   ourColor = aColor;
   ourPosition = aPos;
-};
\ No newline at end of file
+}
\ No newline at end of file
@@ -9,4 +9,4 @@ out vec3 ourColor;
 void main() {
   gl_Position = vec4(aPos.x + horizontalOffset, aPos.y, aPos.z, 1.0);
   ourColor = aColor;
-};
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.logging.Logger;
+
+import static org.lwjgl.opengl.EXTTextureCompressionS3TC.*;
+import static org.lwjgl.opengl.EXTTextureSRGB.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_MAX_LEVEL;
+import static org.lwjgl.opengl.GL13.glCompressedTexImage2D;
+import static org.lwjgl.opengl.GL30.GL_COMPRESSED_RED_RGTC1;
+import static org.lwjgl.opengl.GL30.GL_COMPRESSED_RG_RGTC2;
+import static org.lwjgl.opengl.GL42.GL_COMPRESSED_RGBA_BPTC_UNORM;
+import static org.lwjgl.opengl.GL42.GL_COMPRESSED_SRGB_ALPHA_BPTC_UNORM;
+import static org.lwjgl.opengl.GL43.*;
+
+// A block compressed texture with its mip chain, read from a DDS or KTX2 container
+// The levels are views into the memory mapped file, nothing is copied before the driver gets them
+// Only 2D textures without supercompression are handled, the blocks are uploaded as stored (no flipping)
+public class CompressedTexture {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    // "DDS ", optionally followed by the DX10 extension header
+    private static final int DDS_MAGIC = 0x20534444;
+    private static final int DDS_HEADER_SIZE = 128;
+    private static final int DDS_DX10_HEADER_SIZE = 20;
+    private static final int DDPF_FOURCC = 0x4;
+
+    private static final byte[] KTX2_IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '2', '0', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+    private static final int KTX2_LEVEL_INDEX = 80;
+    private static final int KTX2_LEVEL_INDEX_ENTRY_SIZE = 3 * Long.BYTES;
+
+    // Larger than any driver allows, and small enough that no level size overflows an int
+    private static final int MAX_DIMENSION = 1 << 15;
+
+    public final int internalFormat;
+    public final int width;
+    public final int height;
+    public final ByteBuffer[] levels;
+
+    private CompressedTexture(int internalFormat, int width, int height, ByteBuffer[] levels) {
+        this.internalFormat = internalFormat;
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+    }
+
+    static boolean isCompressedContainer(String path) {
+        final String lowerCase = path.toLowerCase();
+        return lowerCase.endsWith(".dds") || lowerCase.endsWith(".ktx2");
+    }
+
+    // Maps the file (or copies a packed resource) and parses it, returns null when the container or its format is not understood
+    static CompressedTexture read(ImageSource source) throws IOException {
+        ByteBuffer file = source.readOwned().order(ByteOrder.LITTLE_ENDIAN);
+        CompressedTexture texture = file.remaining() >= 4 && file.getInt(0) == DDS_MAGIC ? parseDds(file) : parseKtx2(file);
+        if (texture == null) {
+            logger.severe("Unsupported compressed texture: " + source);
+        }
+        return texture;
+    }
+
+    static CompressedTexture parseDds(ByteBuffer file) {
+        if (file.remaining() < DDS_HEADER_SIZE || file.getInt(0) != DDS_MAGIC) {
+            return null;
+        }
+
+        final int height = file.getInt(12);
+        final int width = file.getInt(16);
+        final int levelCount = Math.max(1, file.getInt(28));
+        final int pixelFormatFlags = file.getInt(80);
+        final int fourCC = file.getInt(84);
+        if ((pixelFormatFlags & DDPF_FOURCC) == 0 || !isValidSize(width, height, levelCount)) {
+            return null;
+        }
+
+        long offset = DDS_HEADER_SIZE;
+        int internalFormat;
+        if (fourCC == fourCC("DX10")) {
+            if (file.limit() < DDS_HEADER_SIZE + DDS_DX10_HEADER_SIZE) {
+                return null;
+            }
+            internalFormat = dxgiFormat(file.getInt(DDS_HEADER_SIZE));
+            offset += DDS_DX10_HEADER_SIZE;
+        } else if (fourCC == fourCC("DXT1")) {
+            internalFormat = GL_COMPRESSED_RGBA_S3TC_DXT1_EXT;
+        } else if (fourCC == fourCC("DXT3")) {
+            internalFormat = GL_COMPRESSED_RGBA_S3TC_DXT3_EXT;
+        } else if (fourCC == fourCC("DXT5")) {
+            internalFormat = GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+        } else if (fourCC == fourCC("ATI1") || fourCC == fourCC("BC4U")) {
+            internalFormat = GL_COMPRESSED_RED_RGTC1;
+        } else if (fourCC == fourCC("ATI2") || fourCC == fourCC("BC5U")) {
+            internalFormat = GL_COMPRESSED_RG_RGTC2;
+        } else {
+            return null;
+        }
+        if (internalFormat == 0) {
+            return null;
+        }
+
+        // The levels follow the header back to back, largest first
+        ByteBuffer[] levels = new ByteBuffer[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            final int size = levelSize(internalFormat, Math.max(1, width >> level), Math.max(1, height >> level));
+            if (offset + size > file.limit()) {
+                return null;
+            }
+            levels[level] = slice(file, (int) offset, size);
+            offset += size;
+        }
+        return new CompressedTexture(internalFormat, width, height, levels);
+    }
+
+    static CompressedTexture parseKtx2(ByteBuffer file) {
+        if (file.remaining() < KTX2_LEVEL_INDEX) {
+            return null;
+        }
+        for (int i = 0; i < KTX2_IDENTIFIER.length; i++) {
+            if (file.get(i) != KTX2_IDENTIFIER[i]) {
+                return null;
+            }
+        }
+
+        final int internalFormat = vkFormat(file.getInt(12));
+        final int width = file.getInt(20);
+        final int height = file.getInt(24);
+        final int depth = file.getInt(28);
+        final int layerCount = file.getInt(32);
+        final int faceCount = file.getInt(36);
+        final int supercompressionScheme = file.getInt(44);
+
+        // A level count of 0 asks the loader to generate the mip chain, which is not possible for compressed blocks
+        final int levelCount = Math.max(1, file.getInt(40));
+        if (internalFormat == 0 || depth > 1 || layerCount > 1 || faceCount != 1 || supercompressionScheme != 0
+                || !isValidSize(width, height, levelCount)) {
+            return null;
+        }
+        if (KTX2_LEVEL_INDEX + (long) levelCount * KTX2_LEVEL_INDEX_ENTRY_SIZE > file.limit()) {
+            return null;
+        }
+
+        // Offsets and sizes are 64 bit, anything that does not describe exactly the expected level lies outside the file
+        ByteBuffer[] levels = new ByteBuffer[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            final int entry = KTX2_LEVEL_INDEX + level * KTX2_LEVEL_INDEX_ENTRY_SIZE;
+            final long offset = file.getLong(entry);
+            final long size = file.getLong(entry + Long.BYTES);
+            final int expectedSize = levelSize(internalFormat, Math.max(1, width >> level), Math.max(1, height >> level));
+            if (offset < 0 || size != expectedSize || offset > file.limit() - size) {
+                return null;
+            }
+            levels[level] = slice(file, (int) offset, expectedSize);
+        }
+        return new CompressedTexture(internalFormat, width, height, levels);
+    }
+
+    // Rejects sizes and level counts a corrupt header could make up before anything is allocated for them
+    private static boolean isValidSize(int width, int height, int levelCount) {
+        return width > 0 && height > 0 && width <= MAX_DIMENSION && height <= MAX_DIMENSION
+                && levelCount <= TextureFormat.levelCount(width, height);
+    }
+
+    static boolean isSupported(int internalFormat) {
+        GLCapabilities capabilities = GL.getCapabilities();
+        switch (internalFormat) {
+            case GL_COMPRESSED_RED_RGTC1:
+            case GL_COMPRESSED_RG_RGTC2:
+                return capabilities.OpenGL30;
+            case GL_COMPRESSED_RGBA_BPTC_UNORM:
+            case GL_COMPRESSED_SRGB_ALPHA_BPTC_UNORM:
+                return capabilities.OpenGL42 || capabilities.GL_ARB_texture_compression_bptc;
+            case GL_COMPRESSED_RGB8_ETC2:
+            case GL_COMPRESSED_SRGB8_ETC2:
+            case GL_COMPRESSED_RGB8_PUNCHTHROUGH_ALPHA1_ETC2:
+            case GL_COMPRESSED_SRGB8_PUNCHTHROUGH_ALPHA1_ETC2:
+            case GL_COMPRESSED_RGBA8_ETC2_EAC:
+            case GL_COMPRESSED_SRGB8_ALPHA8_ETC2_EAC:
+                return capabilities.OpenGL43 || capabilities.GL_ARB_ES3_compatibility;
+            case GL_COMPRESSED_SRGB_S3TC_DXT1_EXT:
+            case GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT1_EXT:
+            case GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT3_EXT:
+            case GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT5_EXT:
+                return capabilities.GL_EXT_texture_compression_s3tc && capabilities.GL_EXT_texture_sRGB;
+            default:
+                return capabilities.GL_EXT_texture_compression_s3tc;
+        }
+    }
+
+    // Uploads every level into the texture bound to GL_TEXTURE_2D
+    void upload() {
+        for (int level = 0; level < levels.length; level++) {
+            glCompressedTexImage2D(GL_TEXTURE_2D, level, internalFormat,
+                    Math.max(1, width >> level), Math.max(1, height >> level), 0, levels[level]);
+        }
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, levels.length - 1);
+    }
+
+    long size() {
+        long size = 0;
+        for (ByteBuffer level : levels) {
+            size += level.remaining();
+        }
+        return size;
+    }
+
+    // Every format here stores 4x4 blocks of 8 or 16 bytes
+    static int levelSize(int internalFormat, int width, int height) {
+        return ((width + 3) / 4) * ((height + 3) / 4) * blockSize(internalFormat);
+    }
+
+    private static int blockSize(int internalFormat) {
+        switch (internalFormat) {
+            case GL_COMPRESSED_RGB_S3TC_DXT1_EXT:
+            case GL_COMPRESSED_RGBA_S3TC_DXT1_EXT:
+            case GL_COMPRESSED_SRGB_S3TC_DXT1_EXT:
+            case GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT1_EXT:
+            case GL_COMPRESSED_RED_RGTC1:
+            case GL_COMPRESSED_RGB8_ETC2:
+            case GL_COMPRESSED_SRGB8_ETC2:
+            case GL_COMPRESSED_RGB8_PUNCHTHROUGH_ALPHA1_ETC2:
+            case GL_COMPRESSED_SRGB8_PUNCHTHROUGH_ALPHA1_ETC2:
+                return 8;
+            default:
+                return 16;
+        }
+    }
+
+    static int fourCC(String code) {
+        return code.charAt(0) | code.charAt(1) << 8 | code.charAt(2) << 16 | code.charAt(3) << 24;
+    }
+
+    private static int dxgiFormat(int format) {
+        switch (format) {
+            case 71: return GL_COMPRESSED_RGBA_S3TC_DXT1_EXT;
+            case 72: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT1_EXT;
+            case 74: return GL_COMPRESSED_RGBA_S3TC_DXT3_EXT;
+            case 75: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT3_EXT;
+            case 77: return GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+            case 78: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT5_EXT;
+            case 80: return GL_COMPRESSED_RED_RGTC1;
+            case 83: return GL_COMPRESSED_RG_RGTC2;
+            case 98: return GL_COMPRESSED_RGBA_BPTC_UNORM;
+            case 99: return GL_COMPRESSED_SRGB_ALPHA_BPTC_UNORM;
+            default: return 0;
+        }
+    }
+
+    private static int vkFormat(int format) {
+        switch (format) {
+            case 131: return GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+            case 132: return GL_COMPRESSED_SRGB_S3TC_DXT1_EXT;
+            case 133: return GL_COMPRESSED_RGBA_S3TC_DXT1_EXT;
+            case 134: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT1_EXT;
+            case 135: return GL_COMPRESSED_RGBA_S3TC_DXT3_EXT;
+            case 136: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT3_EXT;
+            case 137: return GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+            case 138: return GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT5_EXT;
+            case 139: return GL_COMPRESSED_RED_RGTC1;
+            case 141: return GL_COMPRESSED_RG_RGTC2;
+            case 145: return GL_COMPRESSED_RGBA_BPTC_UNORM;
+            case 146: return GL_COMPRESSED_SRGB_ALPHA_BPTC_UNORM;
+            case 147: return GL_COMPRESSED_RGB8_ETC2;
+            case 148: return GL_COMPRESSED_SRGB8_ETC2;
+            case 149: return GL_COMPRESSED_RGB8_PUNCHTHROUGH_ALPHA1_ETC2;
+            case 150: return GL_COMPRESSED_SRGB8_PUNCHTHROUGH_ALPHA1_ETC2;
+            case 151: return GL_COMPRESSED_RGBA8_ETC2_EAC;
+            case 152: return GL_COMPRESSED_SRGB8_ALPHA8_ETC2_EAC;
+            default: return 0;
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer file, int offset, int size) {
+        ByteBuffer slice = file.duplicate();
+        slice.position(offset).limit(offset + size);
+        return slice.slice();
+    }
+}
@@ -1,55 +1,415 @@
 package com.example.learnOpenGl.gettingStarted.textures;
 
+import org.joml.Matrix4f;
 import org.lwjgl.system.MemoryStack;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import static org.lwjgl.opengl.GL11.GL_FALSE;
+import static org.lwjgl.opengl.GL11.glGetInteger;
 import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL31.GL_ACTIVE_UNIFORM_BLOCKS;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BLOCK_DATA_SIZE;
+import static org.lwjgl.opengl.GL31.glGetActiveUniformBlockName;
+import static org.lwjgl.opengl.GL31.glGetActiveUniformBlocki;
+import static org.lwjgl.opengl.GL31.glUniformBlockBinding;
 
 public class CustomShader {
     private static final Logger logger = Logger.getAnonymousLogger();
-    public final int program;
+    private int program;
+
+    // Uniform handles are indices into uniformLocations, resolved once after linking
+    private final Map<String, Integer> uniformHandles = new HashMap<>();
+    private int[] uniformLocations = new int[0];
+
+    // Uniform blocks by name, and the binding points they were assigned so they survive program swaps
+    private final Map<String, Integer> uniformBlockIndices = new HashMap<>();
+    private final Map<String, Integer> uniformBlockBindings = new HashMap<>();
+
+    // Shadow copy of the last value uploaded per handle (raw bits, up to the 16 floats of a mat4)
+    // Uploads that would not change the value are skipped, which assumes all writes go through this class
+    private static final int SHADOW_STRIDE = 16;
+    private static final byte SHADOW_EMPTY = 0;
+    private static final byte SHADOW_INT = 1;
+    private static final byte SHADOW_FLOAT = 2;
+    private static final byte SHADOW_MATRIX4F = 3;
+    private int[] shadowBits = new int[0];
+    private byte[] shadowKinds = new byte[0];
+    private long issuedUploads = 0;
+    private long skippedUploads = 0;
+
+    // Compiled shader objects by expanded source hash, shared by every program in this process
+    // Every program holds a reference to its two shaders, deleting the last program deletes them
+    private static final Map<Long, CompiledShader> compiledShaders = new HashMap<>();
+    private static final Map<Integer, CompiledShader> shaderObjects = new HashMap<>();
+    private static final Map<Integer, CompiledShader[]> programShaders = new HashMap<>();
 
     CustomShader(URL vertexPath, URL fragmentPath) {
-        // Create the shaders
-        final int vertexShader = createShader(GL_VERTEX_SHADER, readFile(vertexPath));
-        final int fragmentShader = createShader(GL_FRAGMENT_SHADER, readFile(fragmentPath));
+        this(vertexPath, fragmentPath, Collections.emptyMap());
+    }
+
+    // The defines are injected into both shaders right after their #version directive
+    // Without defines the SPIR-V modules from the spirv build profile are preferred when the driver supports them
+    CustomShader(URL vertexPath, URL fragmentPath, Map<String, String> defines) {
+        this(defines.isEmpty() ? SpirvShaderLoader.load(vertexPath, fragmentPath) : null, vertexPath, fragmentPath, defines);
+    }
+
+    // Wraps an already linked program, e.g. one finished by a ShaderBatch
+    CustomShader(int program) {
+        this.program = program;
+
+        // Look up all active uniforms so that the setters never have to query the driver
+        reflectUniforms();
+        reflectUniformBlocks();
+    }
+
+    private CustomShader(SpirvShaderLoader.SpirvProgram spirv, URL vertexPath, URL fragmentPath, Map<String, String> defines) {
+        if (spirv == null) {
+            program = buildProgram(ShaderPreprocessor.process(vertexPath, defines), ShaderPreprocessor.process(fragmentPath, defines));
+            reflectUniforms();
+        } else {
+            program = spirv.program;
+            reflectUniforms();
+
+            // Uniform names may be stripped from SPIR-V, the reflection file has the locations
+            for (Map.Entry<String, Integer> uniform : spirv.uniformLocations.entrySet()) {
+                addUniform(uniform.getKey(), uniform.getValue());
+            }
+        }
+        reflectUniformBlocks();
+    }
+
+    static int buildProgram(ShaderSource vertexSource, ShaderSource fragmentSource) {
+        // Reuse a previously linked binary when the program binary cache is enabled
+        final ProgramBinaryCache cache = ProgramBinaryCache.fromSystemProperty();
+        final String cacheKey = cache == null ? null : cache.key(vertexSource, fragmentSource);
+        final int cachedProgram = cache == null ? 0 : cache.load(cacheKey);
+        if (cachedProgram != 0) {
+            return cachedProgram;
+        }
+
+        // Create the shaders, identical sources share a single shader object
+        final int vertexShader = createShader(GL_VERTEX_SHADER, vertexSource);
+        final int fragmentShader = createShader(GL_FRAGMENT_SHADER, fragmentSource);
+        checkCompileStatus(vertexShader, vertexSource);
+        checkCompileStatus(fragmentShader, fragmentSource);
 
         // Create the program and link the shaders
-        program = createProgram(vertexShader, fragmentShader);
+        final int program = createProgram(vertexShader, fragmentShader, cache);
+        final boolean linked = checkLinkStatus(program);
+
+        if (linked && cache != null) {
+            cache.store(cacheKey, program);
+        }
 
-        // Clean up
-        glDeleteShader(vertexShader);
-        glDeleteShader(fragmentShader);
+        return program;
     }
 
     public void use() {
-        glUseProgram(program);
+        GlStateTracker.current().useProgram(program);
+    }
+
+    public int getProgram() {
+        return program;
+    }
+
+    // Swaps in a newly linked program, e.g. after a hot reload. Existing handles stay valid and
+    // every value in the shadow copy is uploaded again, as a fresh program starts out with zeroes.
+    void replaceProgram(int newProgram) {
+        final int previousProgram = program;
+        final int boundProgram = glGetInteger(GL_CURRENT_PROGRAM);
+
+        program = newProgram;
+        Arrays.fill(uniformLocations, -1);
+        reflectUniforms();
+        reflectUniformBlocks();
+
+        final GlStateTracker tracker = GlStateTracker.current();
+        tracker.useProgram(program);
+        replayShadow();
+        tracker.useProgram(boundProgram == previousProgram ? program : boundProgram);
+
+        deleteProgram(previousProgram);
+    }
+
+    // Connects the named uniform block to the buffer bound at the given binding point, see UniformBuffer
+    public void bindUniformBlock(String name, int bindingPoint) {
+        uniformBlockBindings.put(name, bindingPoint);
+
+        Integer index = uniformBlockIndices.get(name);
+        if (index != null) {
+            glUniformBlockBinding(program, index, bindingPoint);
+        }
+    }
+
+    // Size in bytes the driver expects for the named uniform block, or 0 when the program does not use it
+    public int getUniformBlockSize(String name) {
+        Integer index = uniformBlockIndices.get(name);
+        return index == null ? 0 : glGetActiveUniformBlocki(program, index, GL_UNIFORM_BLOCK_DATA_SIZE);
+    }
+
+    // Returns the handle for the given uniform, or -1 when the program does not use it
+    public int getUniformHandle(String name) {
+        Integer handle = uniformHandles.get(name);
+        return handle == null ? -1 : handle;
     }
 
     public void setBool(String name, boolean value) {
-        glUniform1i(glGetUniformLocation(program, name), value ? 1 : 0);
+        setBool(getUniformHandle(name), value);
     }
 
     public void setInt(String name, int value) {
-        glUniform1i(glGetUniformLocation(program, name), value);
+        setInt(getUniformHandle(name), value);
     }
 
     public void setFloat(String name, float value) {
-        glUniform1f(glGetUniformLocation(program, name), value);
+        setFloat(getUniformHandle(name), value);
+    }
+
+    public void setFloatMatrix4f(String name, Matrix4f value) {
+        setFloatMatrix4f(getUniformHandle(name), value);
+    }
+
+    public void setBool(int handle, boolean value) {
+        setInt(handle, value ? 1 : 0);
+    }
+
+    public void setInt(int handle, int value) {
+        if (handle < 0) {
+            return;
+        }
+        if (isShadowed(handle, SHADOW_INT, value)) {
+            skippedUploads++;
+            return;
+        }
+        glUniform1i(uniformLocations[handle], value);
+        issuedUploads++;
+    }
+
+    public void setFloat(int handle, float value) {
+        if (handle < 0) {
+            return;
+        }
+        if (isShadowed(handle, SHADOW_FLOAT, Float.floatToRawIntBits(value))) {
+            skippedUploads++;
+            return;
+        }
+        glUniform1f(uniformLocations[handle], value);
+        issuedUploads++;
+    }
+
+    public void setFloatMatrix4f(int handle, Matrix4f value) {
+        if (handle < 0) {
+            return;
+        }
+        if (isShadowed(handle, value)) {
+            skippedUploads++;
+            return;
+        }
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            FloatBuffer transformData = stack.mallocFloat(16);
+            value.get(transformData);
+            glUniformMatrix4fv(uniformLocations[handle], false, transformData);
+        }
+        issuedUploads++;
+    }
+
+    public long getIssuedUploads() {
+        return issuedUploads;
+    }
+
+    public long getSkippedUploads() {
+        return skippedUploads;
+    }
+
+    public void resetUploadCounters() {
+        issuedUploads = 0;
+        skippedUploads = 0;
     }
 
     public void delete() {
+        deleteProgram(program);
+    }
+
+    // Also releases the shader objects the program was linked from
+    static void deleteProgram(int program) {
         glDeleteProgram(program);
+        GlStateTracker.current().programDeleted(program);
+
+        final CompiledShader[] shaders = programShaders.remove(program);
+        if (shaders == null) {
+            return;
+        }
+        for (CompiledShader compiled : shaders) {
+            if (--compiled.references == 0) {
+                glDeleteShader(compiled.shader);
+                compiledShaders.remove(compiled.key, compiled);
+                shaderObjects.remove(compiled.shader);
+            }
+        }
+    }
+
+    private void reflectUniforms() {
+        final int uniformCount = glGetProgrami(program, GL_ACTIVE_UNIFORMS);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer size = stack.mallocInt(1);
+            IntBuffer type = stack.mallocInt(1);
+
+            for (int i = 0; i < uniformCount; i++) {
+                String name = glGetActiveUniform(program, i, size, type);
+
+                // Arrays are reported as "name[0]", register both the plain name and every element
+                if (name.endsWith("[0]")) {
+                    final String baseName = name.substring(0, name.length() - 3);
+                    addUniform(baseName, glGetUniformLocation(program, name));
+                    for (int element = 0; element < size.get(0); element++) {
+                        final String elementName = baseName + "[" + element + "]";
+                        addUniform(elementName, glGetUniformLocation(program, elementName));
+                    }
+                } else {
+                    addUniform(name, glGetUniformLocation(program, name));
+                }
+            }
+        }
+    }
+
+    // Compares a scalar against the shadow copy and records it when it differs
+    private boolean isShadowed(int handle, byte kind, int bits) {
+        final int base = handle * SHADOW_STRIDE;
+        if (shadowKinds[handle] == kind && shadowBits[base] == bits) {
+            return true;
+        }
+        shadowBits[base] = bits;
+        shadowKinds[handle] = kind;
+        return false;
+    }
+
+    // Compares a matrix (column major, like glUniformMatrix4fv) against the shadow copy and records it when it differs
+    private boolean isShadowed(int handle, Matrix4f value) {
+        final int base = handle * SHADOW_STRIDE;
+        if (shadowKinds[handle] == SHADOW_MATRIX4F
+                && shadowBits[base] == Float.floatToRawIntBits(value.m00())
+                && shadowBits[base + 1] == Float.floatToRawIntBits(value.m01())
+                && shadowBits[base + 2] == Float.floatToRawIntBits(value.m02())
+                && shadowBits[base + 3] == Float.floatToRawIntBits(value.m03())
+                && shadowBits[base + 4] == Float.floatToRawIntBits(value.m10())
+                && shadowBits[base + 5] == Float.floatToRawIntBits(value.m11())
+                && shadowBits[base + 6] == Float.floatToRawIntBits(value.m12())
+                && shadowBits[base + 7] == Float.floatToRawIntBits(value.m13())
+                && shadowBits[base + 8] == Float.floatToRawIntBits(value.m20())
+                && shadowBits[base + 9] == Float.floatToRawIntBits(value.m21())
+                && shadowBits[base + 10] == Float.floatToRawIntBits(value.m22())
+                && shadowBits[base + 11] == Float.floatToRawIntBits(value.m23())
+                && shadowBits[base + 12] == Float.floatToRawIntBits(value.m30())
+                && shadowBits[base + 13] == Float.floatToRawIntBits(value.m31())
+                && shadowBits[base + 14] == Float.floatToRawIntBits(value.m32())
+                && shadowBits[base + 15] == Float.floatToRawIntBits(value.m33())) {
+            return true;
+        }
+
+        shadowBits[base] = Float.floatToRawIntBits(value.m00());
+        shadowBits[base + 1] = Float.floatToRawIntBits(value.m01());
+        shadowBits[base + 2] = Float.floatToRawIntBits(value.m02());
+        shadowBits[base + 3] = Float.floatToRawIntBits(value.m03());
+        shadowBits[base + 4] = Float.floatToRawIntBits(value.m10());
+        shadowBits[base + 5] = Float.floatToRawIntBits(value.m11());
+        shadowBits[base + 6] = Float.floatToRawIntBits(value.m12());
+        shadowBits[base + 7] = Float.floatToRawIntBits(value.m13());
+        shadowBits[base + 8] = Float.floatToRawIntBits(value.m20());
+        shadowBits[base + 9] = Float.floatToRawIntBits(value.m21());
+        shadowBits[base + 10] = Float.floatToRawIntBits(value.m22());
+        shadowBits[base + 11] = Float.floatToRawIntBits(value.m23());
+        shadowBits[base + 12] = Float.floatToRawIntBits(value.m30());
+        shadowBits[base + 13] = Float.floatToRawIntBits(value.m31());
+        shadowBits[base + 14] = Float.floatToRawIntBits(value.m32());
+        shadowBits[base + 15] = Float.floatToRawIntBits(value.m33());
+        shadowKinds[handle] = SHADOW_MATRIX4F;
+        return false;
+    }
+
+    // Uploads every shadowed value to the currently bound program
+    private void replayShadow() {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            FloatBuffer matrixData = stack.mallocFloat(16);
+
+            for (int handle = 0; handle < uniformLocations.length; handle++) {
+                final int location = uniformLocations[handle];
+                final int base = handle * SHADOW_STRIDE;
+                if (location < 0) {
+                    continue;
+                }
+
+                switch (shadowKinds[handle]) {
+                    case SHADOW_INT:
+                        glUniform1i(location, shadowBits[base]);
+                        break;
+                    case SHADOW_FLOAT:
+                        glUniform1f(location, Float.intBitsToFloat(shadowBits[base]));
+                        break;
+                    case SHADOW_MATRIX4F:
+                        for (int i = 0; i < 16; i++) {
+                            matrixData.put(i, Float.intBitsToFloat(shadowBits[base + i]));
+                        }
+                        glUniformMatrix4fv(location, false, matrixData);
+                        break;
+                    default:
+                        continue;
+                }
+                issuedUploads++;
+            }
+        }
+    }
+
+    private void reflectUniformBlocks() {
+        uniformBlockIndices.clear();
+
+        final int blockCount = glGetProgrami(program, GL_ACTIVE_UNIFORM_BLOCKS);
+        for (int i = 0; i < blockCount; i++) {
+            uniformBlockIndices.put(glGetActiveUniformBlockName(program, i), i);
+        }
+
+        // Restore the bindings of a previous program
+        for (Map.Entry<String, Integer> binding : uniformBlockBindings.entrySet()) {
+            Integer index = uniformBlockIndices.get(binding.getKey());
+            if (index != null) {
+                glUniformBlockBinding(program, index, binding.getValue());
+            }
+        }
+    }
+
+    private void addUniform(String name, int location) {
+        // Members of uniform blocks have no location of their own
+        if (location < 0) {
+            return;
+        }
+
+        // Keep the handle of a known uniform so that callers can hold on to it across program swaps
+        Integer existing = uniformHandles.get(name);
+        if (existing != null) {
+            uniformLocations[existing] = location;
+            return;
+        }
+
+        final int handle = uniformLocations.length;
+        uniformLocations = Arrays.copyOf(uniformLocations, handle + 1);
+        uniformLocations[handle] = location;
+        shadowBits = Arrays.copyOf(shadowBits, (handle + 1) * SHADOW_STRIDE);
+        shadowKinds = Arrays.copyOf(shadowKinds, handle + 1);
+        uniformHandles.put(name, handle);
     }
 
-    private String readFile(URL path) {
+    static String readFile(URL path) {
         StringBuilder builder = new StringBuilder();
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(path.openStream()))) {
@@ -65,38 +425,89 @@ public class CustomShader {
         return builder.toString();
     }
 
-    private int createProgram(int vertexShader, int fragmentShader) {
+    // Issues the link without waiting for it, see checkLinkStatus
+    static int createProgram(int vertexShader, int fragmentShader, ProgramBinaryCache cache) {
         int program = glCreateProgram();
+        if (cache != null) {
+            cache.prepare(program);
+        }
         glAttachShader(program, vertexShader);
         glAttachShader(program, fragmentShader);
         glLinkProgram(program);
+        programShaders.put(program, new CompiledShader[]{shaderObjects.get(vertexShader), shaderObjects.get(fragmentShader)});
+
+        return program;
+    }
+
+    // Issues the compile without waiting for it, see checkCompileStatus
+    // Shader objects are kept per expanded source so identical sources are only compiled once per process
+    // The returned shader holds a reference that is handed to the program created from it, see createProgram
+    static int createShader(int shaderType, ShaderSource source) {
+        final long key = source.hash * 31 + shaderType;
+        CompiledShader compiled = compiledShaders.get(key);
+        if (compiled != null && compiled.type == shaderType && compiled.text.equals(source.text)) {
+            compiled.references++;
+            return compiled.shader;
+        }
+
+        int shader = glCreateShader(shaderType);
+        glShaderSource(shader, source.text);
+        glCompileShader(shader);
+
+        compiled = new CompiledShader(key, shader, shaderType, source.text);
+        compiledShaders.put(key, compiled);
+        shaderObjects.put(shader, compiled);
+        return shader;
+    }
 
+    // Querying the status blocks until the driver has finished linking
+    static boolean checkLinkStatus(int program) {
         try(MemoryStack stack = MemoryStack.stackPush()) {
             IntBuffer buffer = stack.mallocInt(1);
             glGetProgramiv(program, GL_LINK_STATUS, buffer);
             if (buffer.get(0) == GL_FALSE) {
                 final String infoLog = glGetProgramInfoLog(program);
                 logger.severe("Shader compilation failed: " + infoLog);
+                return false;
             }
         }
 
-        return program;
+        return true;
     }
 
-    private int createShader(int shaderType, String src) {
-        int shader = glCreateShader(shaderType);
-        glShaderSource(shader, src);
-        glCompileShader(shader);
-
+    // Querying the status blocks until the driver has finished compiling
+    static boolean checkCompileStatus(int shader, ShaderSource source) {
         try(MemoryStack stack = MemoryStack.stackPush()) {
             IntBuffer buffer = stack.mallocInt(1);
             glGetShaderiv(shader, GL_COMPILE_STATUS, buffer);
             if (buffer.get(0) == GL_FALSE) {
-                final String infoLog = glGetShaderInfoLog(shader);
+                final String infoLog = source.translateLog(glGetShaderInfoLog(shader));
                 logger.severe("Shader compilation failed: " + infoLog);
+
+                // Do not hand out a broken shader again, the programs holding it still release it
+                final CompiledShader compiled = shaderObjects.get(shader);
+                if (compiled != null) {
+                    compiledShaders.remove(compiled.key, compiled);
+                }
+                return false;
             }
         }
 
-        return shader;
+        return true;
+    }
+
+    private static class CompiledShader {
+        private final long key;
+        private final int shader;
+        private final int type;
+        private final String text;
+        private int references = 1;
+
+        private CompiledShader(long key, int shader, int type, String text) {
+            this.key = key;
+            this.shader = shader;
+            this.type = type;
+            this.text = text;
+        }
     }
 }
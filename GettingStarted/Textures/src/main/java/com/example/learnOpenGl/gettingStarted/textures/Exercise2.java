@@ -4,7 +4,6 @@ import org.lwjgl.glfw.GLFWFramebufferSizeCallbackI;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.system.MemoryStack;
 
-import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.ByteBuffer;
@@ -34,22 +33,20 @@ public class Exercise2 {
     private static final URL FRAGMENT_SHADER_PATH = TextureClass.class.getClassLoader().getResource("shader.fs");
 
     // Texture
-    private static final String CONTAINER_TEXTURE_PATH = new File(TextureClass.class.getClassLoader().getResource("container.jpg").getFile()).getPath();
-    private static final String AWESOMEFACE_TEXTURE_PATH = new File(TextureClass.class.getClassLoader().getResource("awesomeface.png").getFile()).getPath();
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            // positions        // colors        // texture coords
-             0.5f,  0.5f, 0.0f, 1.0f, 0.0f, 0.0f, 2.0f, 2.0f, // top right
-             0.5f, -0.5f, 0.0f, 0.0f, 1.0f, 0.0f, 2.0f, 0.0f, // bottom right
-            -0.5f, -0.5f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f, // bottom left
-            -0.5f,  0.5f, 0.0f, 1.0f, 1.0f, 0.0f, 0.0f, 2.0f // top left
-    };
-
-    private static final int[] INDICES = {
-            0, 1, 3, // first triangle
-            1, 2, 3  // second triangle
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(32, 6)
+                // positions        // colors        // texture coords
+                .position(0.5f, 0.5f, 0.0f).color(1.0f, 0.0f, 0.0f).uv(2.0f, 2.0f) // top right
+                .position(0.5f, -0.5f, 0.0f).color(0.0f, 1.0f, 0.0f).uv(2.0f, 0.0f) // bottom right
+                .position(-0.5f, -0.5f, 0.0f).color(0.0f, 0.0f, 1.0f).uv(0.0f, 0.0f) // bottom left
+                .position(-0.5f, 0.5f, 0.0f).color(1.0f, 1.0f, 0.0f).uv(0.0f, 2.0f) // top left
+                .triangle(0, 1, 3) // first triangle
+                .triangle(1, 2, 3); // second triangle
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -65,7 +62,14 @@ public class Exercise2 {
         glBindVertexArray(vao);
 
         glBindBuffer(GL_ARRAY_BUFFER, vbo);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+        final VertexBuilder vertices = buildVertices();
+
+        // Reorder the triangles and vertices for the vertex cache before anything is uploaded
+        final Mesh source = Mesh.copyOf(vertices, 8);
+        vertices.close();
+        final Mesh mesh = MeshProcessor.optimize("quad", source);
+        source.free();
+        glBufferData(GL_ARRAY_BUFFER, mesh.vertices, GL_STATIC_DRAW);
 
         // Feed the position vertices to OpenGL
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 8 * Float.BYTES, 0);
@@ -80,7 +84,8 @@ public class Exercise2 {
         glEnableVertexAttribArray(2);
 
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, INDICES, GL_STATIC_DRAW);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.indices, GL_STATIC_DRAW);
+        mesh.free();
 
         // Reset the bind
         glBindBuffer(GL_ARRAY_BUFFER, 0);
@@ -90,24 +95,14 @@ public class Exercise2 {
 //        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
     }
 
-    private static int loadTexture(String path, boolean containsAlpha, boolean repeat) throws URISyntaxException {
+    private static int loadTexture(ImageSource source) throws URISyntaxException {
         int texture = glGenTextures();
 
         // Bind the texture to the current context so that all subsequent operations affect THIS instance
-        glBindTexture(GL_TEXTURE_2D, texture);
-
-        // Set the texture wrapping parameters (these are defaults)
-        if (repeat) {
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
-        } else {
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
-        }
+        // Through the state tracker, so its cached unit bindings stay correct
+        GlStateTracker.current().bindTexture(0, GL_TEXTURE_2D, texture);
 
-        // Set the texture filtering parameters (GL_NEAREST is default)
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        // Wrapping and filtering come from the sampler bound next to the texture
 
         try (MemoryStack stack = MemoryStack.stackPush()) {
             IntBuffer width = stack.ints(0);
@@ -115,18 +110,17 @@ public class Exercise2 {
             IntBuffer nrChannels = stack.ints(0);
 
             stbi_set_flip_vertically_on_load(true);
-            ByteBuffer data = stbi_load(path, width, height, nrChannels, 0);
+            ByteBuffer data = source.load(width, height, nrChannels, 0);
 
             if (data != null) {
-                if (containsAlpha) {
-                    glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB, width.get(0), height.get(0), 0, GL_RGBA, GL_UNSIGNED_BYTE, data);
-                } else {
-                    glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB, width.get(0), height.get(0), 0, GL_RGB, GL_UNSIGNED_BYTE, data);
-                }
+                // Storage in the exact format of the decoded pixels, so the upload is a plain copy
+                final int channels = nrChannels.get(0);
+                TextureFormat.allocate(width.get(0), height.get(0), TextureFormat.levelCount(width.get(0), height.get(0)), channels, false);
+                TextureFormat.upload(0, width.get(0), height.get(0), channels, data);
                 glGenerateMipmap(GL_TEXTURE_2D);
                 stbi_image_free(data);
             } else {
-                logger.severe("Failed to load texture: " + path);
+                logger.severe("Failed to load texture: " + source);
             }
         }
 
@@ -178,8 +172,13 @@ public class Exercise2 {
         setUpVertexData(vao, vbo, ebo);
 
         // Initialize the texture
-        final int texture1 = loadTexture(CONTAINER_TEXTURE_PATH, false, false);
-        final int texture2 = loadTexture(AWESOMEFACE_TEXTURE_PATH, true, true);
+        final int texture1 = loadTexture(CONTAINER_TEXTURE);
+        final int texture2 = loadTexture(AWESOMEFACE_TEXTURE);
+
+        // The container is clamped and the face repeated, through two shared sampler objects
+        final SamplerCache samplers = new SamplerCache();
+        final int sampler1 = samplers.get(SamplerCache.LINEAR_CLAMP);
+        final int sampler2 = samplers.get(SamplerCache.LINEAR_REPEAT);
 
         shader.setInt("texture1", 0);
         shader.setInt("texture2", 1);
@@ -193,30 +192,37 @@ public class Exercise2 {
             glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
             glClear(GL_COLOR_BUFFER_BIT);
 
-            glActiveTexture(GL_TEXTURE0);
-            glBindTexture(GL_TEXTURE_2D, texture1);
-            glActiveTexture(GL_TEXTURE1);
-            glBindTexture(GL_TEXTURE_2D, texture2);
+            // Units that already hold the texture and sampler are skipped
+            final GlStateTracker state = GlStateTracker.current();
+            state.bindTexture(0, GL_TEXTURE_2D, texture1);
+            state.bindSampler(0, sampler1);
+            state.bindTexture(1, GL_TEXTURE_2D, texture2);
+            state.bindSampler(1, sampler2);
 
             // Use the shader program
             shader.use();
 
             // Tech not needed as there is only one VBOe but that is not a realistic use case
-            glBindVertexArray(vao);
+            GlStateTracker.current().bindVertexArray(vao);
             glDrawElements(GL_TRIANGLES, 6, GL_UNSIGNED_INT, 0);
 
             // Check and call events
             // Swap the buffers
             glfwSwapBuffers(window);
             glfwPollEvents();
+            GlStateTracker.current().endFrame();
         }
 
+        logger.info("Binds in the last frame issued: " + GlStateTracker.current().getLastFrameIssuedBinds()
+                + ", skipped: " + GlStateTracker.current().getLastFrameSkippedBinds());
+
         // Deallocate all resources when no longer necessary
         glDeleteVertexArrays(vao);
         glDeleteBuffers(vbo);
         glDeleteBuffers(ebo);
         glDeleteTextures(texture1);
         glDeleteTextures(texture2);
+        samplers.delete();
         shader.delete();
 
         glfwTerminate();
@@ -4,7 +4,6 @@ import org.lwjgl.glfw.GLFWFramebufferSizeCallbackI;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.system.MemoryStack;
 
-import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.ByteBuffer;
@@ -34,22 +33,20 @@ public class Exercise3 {
     private static final URL FRAGMENT_SHADER_PATH = TextureClass.class.getClassLoader().getResource("shader.fs");
 
     // Texture
-    private static final String CONTAINER_TEXTURE_PATH = new File(TextureClass.class.getClassLoader().getResource("container.jpg").getFile()).getPath();
-    private static final String AWESOMEFACE_TEXTURE_PATH = new File(TextureClass.class.getClassLoader().getResource("awesomeface.png").getFile()).getPath();
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            // positions        // colors         // texture coords
-            0.5f,  0.5f, 0.0f, 1.0f, 0.0f, 0.0f, 0.55f, 0.55f, // top right
-            0.5f, -0.5f, 0.0f, 0.0f, 1.0f, 0.0f, 0.55f, 0.45f, // bottom right
-            -0.5f, -0.5f, 0.0f, 0.0f, 0.0f, 1.0f, 0.45f, 0.45f, // bottom left
-            -0.5f,  0.5f, 0.0f, 1.0f, 1.0f, 0.0f, 0.45f, 0.55f // top left
-    };
-
-    private static final int[] INDICES = {
-            0, 1, 3, // first triangle
-            1, 2, 3  // second triangle
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(32, 6)
+                // positions        // colors         // texture coords
+                .position(0.5f, 0.5f, 0.0f).color(1.0f, 0.0f, 0.0f).uv(0.55f, 0.55f) // top right
+                .position(0.5f, -0.5f, 0.0f).color(0.0f, 1.0f, 0.0f).uv(0.55f, 0.45f) // bottom right
+                .position(-0.5f, -0.5f, 0.0f).color(0.0f, 0.0f, 1.0f).uv(0.45f, 0.45f) // bottom left
+                .position(-0.5f, 0.5f, 0.0f).color(1.0f, 1.0f, 0.0f).uv(0.45f, 0.55f) // top left
+                .triangle(0, 1, 3) // first triangle
+                .triangle(1, 2, 3); // second triangle
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -65,7 +62,14 @@ public class Exercise3 {
         glBindVertexArray(vao);
 
         glBindBuffer(GL_ARRAY_BUFFER, vbo);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
+        final VertexBuilder vertices = buildVertices();
+
+        // Reorder the triangles and vertices for the vertex cache before anything is uploaded
+        final Mesh source = Mesh.copyOf(vertices, 8);
+        vertices.close();
+        final Mesh mesh = MeshProcessor.optimize("quad", source);
+        source.free();
+        glBufferData(GL_ARRAY_BUFFER, mesh.vertices, GL_STATIC_DRAW);
 
         // Feed the position vertices to OpenGL
         glVertexAttribPointer(0, 3, GL_FLOAT, false, 8 * Float.BYTES, 0);
@@ -80,7 +84,8 @@ public class Exercise3 {
         glEnableVertexAttribArray(2);
 
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, INDICES, GL_STATIC_DRAW);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.indices, GL_STATIC_DRAW);
+        mesh.free();
 
         // Reset the bind
         glBindBuffer(GL_ARRAY_BUFFER, 0);
@@ -90,7 +95,7 @@ public class Exercise3 {
 //        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
     }
 
-    private static int loadTexture(String path, boolean containsAlpha) throws URISyntaxException {
+    private static int loadTexture(ImageSource source) throws URISyntaxException {
         int texture = glGenTextures();
 
         // Bind the texture to the current context so that all subsequent operations affect THIS instance
@@ -110,18 +115,17 @@ public class Exercise3 {
             IntBuffer nrChannels = stack.ints(0);
 
             stbi_set_flip_vertically_on_load(true);
-            ByteBuffer data = stbi_load(path, width, height, nrChannels, 0);
+            ByteBuffer data = source.load(width, height, nrChannels, 0);
 
             if (data != null) {
-                if (containsAlpha) {
-                    glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB, width.get(0), height.get(0), 0, GL_RGBA, GL_UNSIGNED_BYTE, data);
-                } else {
-                    glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB, width.get(0), height.get(0), 0, GL_RGB, GL_UNSIGNED_BYTE, data);
-                }
+                // Storage in the exact format of the decoded pixels, so the upload is a plain copy
+                final int channels = nrChannels.get(0);
+                TextureFormat.allocate(width.get(0), height.get(0), TextureFormat.levelCount(width.get(0), height.get(0)), channels, false);
+                TextureFormat.upload(0, width.get(0), height.get(0), channels, data);
                 glGenerateMipmap(GL_TEXTURE_2D);
                 stbi_image_free(data);
             } else {
-                logger.severe("Failed to load texture: " + path);
+                logger.severe("Failed to load texture: " + source);
             }
         }
 
@@ -173,8 +177,8 @@ public class Exercise3 {
         setUpVertexData(vao, vbo, ebo);
 
         // Initialize the texture
-        final int texture1 = loadTexture(CONTAINER_TEXTURE_PATH, false);
-        final int texture2 = loadTexture(AWESOMEFACE_TEXTURE_PATH, true);
+        final int texture1 = loadTexture(CONTAINER_TEXTURE);
+        final int texture2 = loadTexture(AWESOMEFACE_TEXTURE);
 
         shader.setInt("texture1", 0);
         shader.setInt("texture2", 1);
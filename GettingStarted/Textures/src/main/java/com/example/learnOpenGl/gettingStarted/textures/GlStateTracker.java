@@ -0,0 +1,176 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.glBindTexture;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL20.glUseProgram;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL33.glBindSampler;
+
+// Remembers which objects are bound so that binding them again can be skipped
+// GL state belongs to the context current on a thread, so every thread gets its own tracker
+// Anything that binds objects without going through the tracker has to call invalidate() afterwards
+public class GlStateTracker {
+    static final String ENABLED_PROPERTY = "learnOpenGl.stateTracking";
+
+    // Marks state that has to be set regardless of the value, as nothing is known about it
+    private static final int UNKNOWN = -1;
+
+    // Every GL 3.3 implementation has at least this many combined texture units
+    private static final int TRACKED_TEXTURE_UNITS = 48;
+
+    private static final ThreadLocal<GlStateTracker> trackers = ThreadLocal.withInitial(GlStateTracker::new);
+
+    private boolean enabled = Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    private int currentProgram = UNKNOWN;
+    private int currentVertexArray = UNKNOWN;
+    private int activeTextureUnit = UNKNOWN;
+    private final int[] unitTargets = new int[TRACKED_TEXTURE_UNITS];
+    private final int[] unitTextures = new int[TRACKED_TEXTURE_UNITS];
+    private final int[] unitSamplers = new int[TRACKED_TEXTURE_UNITS];
+
+    // Binds issued and skipped in the running frame and in the last finished one
+    private int issuedBinds = 0;
+    private int skippedBinds = 0;
+    private int lastFrameIssuedBinds = 0;
+    private int lastFrameSkippedBinds = 0;
+
+    private GlStateTracker() {
+        forgetTextureUnits();
+    }
+
+    static GlStateTracker current() {
+        return trackers.get();
+    }
+
+    void useProgram(int program) {
+        if (enabled && currentProgram == program) {
+            skippedBinds++;
+            return;
+        }
+        glUseProgram(program);
+        currentProgram = program;
+        issuedBinds++;
+    }
+
+    void bindVertexArray(int vertexArray) {
+        if (enabled && currentVertexArray == vertexArray) {
+            skippedBinds++;
+            return;
+        }
+        glBindVertexArray(vertexArray);
+        currentVertexArray = vertexArray;
+        issuedBinds++;
+    }
+
+    // Only one texture per unit is remembered, switching targets on a unit always binds again
+    void bindTexture(int unit, int target, int texture) {
+        if (enabled && unit < TRACKED_TEXTURE_UNITS && unitTargets[unit] == target && unitTextures[unit] == texture) {
+            skippedBinds++;
+            return;
+        }
+        activeTexture(unit);
+        glBindTexture(target, texture);
+        if (unit < TRACKED_TEXTURE_UNITS) {
+            unitTargets[unit] = target;
+            unitTextures[unit] = texture;
+        }
+        issuedBinds++;
+    }
+
+    // Sampler bindings take the unit directly, no need to switch the active unit
+    void bindSampler(int unit, int sampler) {
+        if (enabled && unit < TRACKED_TEXTURE_UNITS && unitSamplers[unit] == sampler) {
+            skippedBinds++;
+            return;
+        }
+        glBindSampler(unit, sampler);
+        if (unit < TRACKED_TEXTURE_UNITS) {
+            unitSamplers[unit] = sampler;
+        }
+        issuedBinds++;
+    }
+
+    // A deleted name can be handed out again, so it must not be mistaken for the object that is still bound
+    void programDeleted(int program) {
+        if (currentProgram == program) {
+            currentProgram = UNKNOWN;
+        }
+    }
+
+    void vertexArrayDeleted(int vertexArray) {
+        if (currentVertexArray == vertexArray) {
+            currentVertexArray = UNKNOWN;
+        }
+    }
+
+    void textureDeleted(int texture) {
+        for (int unit = 0; unit < TRACKED_TEXTURE_UNITS; unit++) {
+            if (unitTextures[unit] == texture) {
+                unitTextures[unit] = UNKNOWN;
+            }
+        }
+    }
+
+    void samplerDeleted(int sampler) {
+        for (int unit = 0; unit < TRACKED_TEXTURE_UNITS; unit++) {
+            if (unitSamplers[unit] == sampler) {
+                unitSamplers[unit] = UNKNOWN;
+            }
+        }
+    }
+
+    // Forgets every binding, e.g. after calling into code that talks to GL directly
+    void invalidate() {
+        currentProgram = UNKNOWN;
+        currentVertexArray = UNKNOWN;
+        invalidateTextures();
+    }
+
+    // Forgets the texture bindings only, e.g. after uploads that bound textures themselves
+    void invalidateTextures() {
+        activeTextureUnit = UNKNOWN;
+        forgetTextureUnits();
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        invalidate();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // Call once per frame, e.g. right after swapping the buffers
+    void endFrame() {
+        lastFrameIssuedBinds = issuedBinds;
+        lastFrameSkippedBinds = skippedBinds;
+        issuedBinds = 0;
+        skippedBinds = 0;
+    }
+
+    int getLastFrameIssuedBinds() {
+        return lastFrameIssuedBinds;
+    }
+
+    int getLastFrameSkippedBinds() {
+        return lastFrameSkippedBinds;
+    }
+
+    private void activeTexture(int unit) {
+        if (enabled && activeTextureUnit == unit) {
+            return;
+        }
+        glActiveTexture(GL_TEXTURE0 + unit);
+        activeTextureUnit = unit;
+    }
+
+    private void forgetTextureUnits() {
+        Arrays.fill(unitTargets, UNKNOWN);
+        Arrays.fill(unitTextures, UNKNOWN);
+        Arrays.fill(unitSamplers, UNKNOWN);
+    }
+}
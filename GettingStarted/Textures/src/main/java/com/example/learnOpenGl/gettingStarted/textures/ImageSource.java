@@ -0,0 +1,129 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+import static org.lwjgl.stb.STBImage.stbi_failure_reason;
+import static org.lwjgl.stb.STBImage.stbi_load_from_memory;
+
+// The encoded bytes of an image, either a file on disk or a resource that may be packed inside a jar
+// Files are memory mapped so stb_image reads the page cache directly, resources are streamed into a
+// direct buffer that is reused by every read on the same thread
+public class ImageSource {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+
+    // Decoder threads each keep their own buffer, it only ever grows to the largest resource read
+    private static final ThreadLocal<ByteBuffer> readBuffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE));
+
+    private final String name;
+    private final Path file;
+    private final URL resource;
+
+    private ImageSource(String name, Path file, URL resource) {
+        this.name = name;
+        this.file = file;
+        this.resource = resource;
+    }
+
+    static ImageSource fromFile(Path file) {
+        return new ImageSource(file.toString(), file, null);
+    }
+
+    static ImageSource fromFile(String path) {
+        return fromFile(Paths.get(path));
+    }
+
+    // Resources that were not packed into a jar are still plain files and get mapped
+    static ImageSource fromResource(String name) {
+        final URL url = ImageSource.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new IllegalArgumentException("Resource not found: " + name);
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new ImageSource(name, Paths.get(url.toURI()), null);
+            } catch (URISyntaxException e) {
+                logger.warning("Failed to resolve resource: " + url + ": " + e.getMessage());
+            }
+        }
+        return new ImageSource(name, null, url);
+    }
+
+    // The mapped file or this thread's reusable buffer, only valid until the next read on this thread
+    ByteBuffer read() throws IOException {
+        if (file != null) {
+            return map(file);
+        }
+
+        ByteBuffer buffer = readBuffers.get();
+        buffer.clear();
+        try (InputStream stream = resource.openStream(); ReadableByteChannel channel = Channels.newChannel(stream)) {
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                    readBuffers.set(buffer);
+                }
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Like read(), but the bytes stay valid for as long as the returned buffer is referenced
+    ByteBuffer readOwned() throws IOException {
+        if (file != null) {
+            return map(file);
+        }
+
+        ByteBuffer shared = read();
+        ByteBuffer owned = ByteBuffer.allocateDirect(shared.remaining());
+        owned.put(shared).flip();
+        return owned;
+    }
+
+    // Same contract as stbi_load, so callers only swap the path for the source
+    // Flipping follows whatever stbi_set_flip_vertically_on_load(_thread) was set to
+    ByteBuffer load(IntBuffer width, IntBuffer height, IntBuffer channels, int desiredChannels) {
+        final ByteBuffer encoded;
+        try {
+            encoded = read();
+        } catch (IOException e) {
+            logger.severe("Failed to read image: " + name + ": " + e.getMessage());
+            return null;
+        }
+
+        ByteBuffer data = stbi_load_from_memory(encoded, width, height, channels, desiredChannels);
+        if (data == null) {
+            logger.severe("Failed to decode image: " + name + ": " + stbi_failure_reason());
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    // The mapping stays valid after the channel is closed, until the buffer is garbage collected
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memAllocInt;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// An indexed triangle mesh in memAlloc'd memory: interleaved vertices of vertexSize bytes and 32 bit indices
+// MeshProcessor expects the positions as the first 3 floats of every vertex, like VertexBuilder writes them
+public class Mesh {
+    public final ByteBuffer vertices;
+    public final int vertexSize;
+    public final IntBuffer indices;
+
+    Mesh(ByteBuffer vertices, int vertexSize, IntBuffer indices) {
+        this.vertices = vertices;
+        this.vertexSize = vertexSize;
+        this.indices = indices;
+    }
+
+    // Copies what the builder has written, so the builder can be closed or reused right away
+    static Mesh copyOf(VertexBuilder builder, int vertexFloats) {
+        final ByteBuffer vertices = memAlloc(builder.getVertices().remaining());
+        vertices.put(builder.getVertices()).flip();
+        final IntBuffer indices = memAllocInt(builder.getIndexCount());
+        indices.put(builder.getIndices()).flip();
+        return new Mesh(vertices, vertexFloats * Float.BYTES, indices);
+    }
+
+    int getVertexCount() {
+        return vertices.remaining() / vertexSize;
+    }
+
+    int getIndexCount() {
+        return indices.remaining();
+    }
+
+    void free() {
+        memFree(vertices);
+        memFree(indices);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.lwjgl.stb.STBImageResize.*;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+
+// Builds full mip chains with stb_image_resize instead of glGenerateMipmap's box filter at load time
+// Colour images are filtered in linear light and stored as sRGB again, so dark and bright texels keep their weight
+// Every level is resampled from level 0 independently, which lets all levels of all images run in parallel
+//
+// As an asset step it fills a TextureCache directory that TextureLoader then serves the prebuilt levels from:
+// Usage: MipGenerator <image directory> <texture cache directory>, run by the mipmaps Maven profile
+public class MipGenerator {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private final ForkJoinPool pool;
+
+    MipGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: MipGenerator <image directory> <texture cache directory>");
+            System.exit(-1);
+        }
+
+        List<Path> images;
+        try (Stream<Path> files = Files.list(Paths.get(args[0]))) {
+            images = files
+                    .filter(file -> file.toString().endsWith(".jpg") || file.toString().endsWith(".png"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        final TextureCache cache = new TextureCache(Paths.get(args[1]));
+        final MipGenerator generator = new MipGenerator(ForkJoinPool.commonPool());
+        final AtomicInteger generated = new AtomicInteger();
+
+        // The examples flip every image on load, so the entries are keyed for flipped loads
+        generator.pool.submit(() -> images.parallelStream().forEach(image -> {
+            final ImageSource source = ImageSource.fromFile(image);
+            TextureImage base = TextureLoader.decode(source, true, 0);
+            if (base == null) {
+                return;
+            }
+
+            TextureImage mipmapped = generator.generate(base, base.channels >= 3);
+            try {
+                cache.store(TextureCache.key(source, true), mipmapped);
+                generated.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                mipmapped.free();
+            }
+        })).join();
+
+        logger.info("Generated mip chains for " + generated.get() + " of " + images.size() + " images");
+        if (generated.get() != images.size()) {
+            System.exit(1);
+        }
+    }
+
+    // Returns the image with every level down to 1x1, level 0 is shared with the given image
+    TextureImage generate(TextureImage base, boolean srgb) {
+        final int levelCount = TextureFormat.levelCount(base.width, base.height);
+        final ByteBuffer[] levels = new ByteBuffer[levelCount];
+        levels[0] = base.levels[0];
+
+        pool.submit(() -> IntStream.range(1, levelCount).parallel().forEach(level ->
+                levels[level] = resize(base, base.levelWidth(level), base.levelHeight(level), srgb))).join();
+
+        return base.withLevels(levels);
+    }
+
+    private static ByteBuffer resize(TextureImage base, int width, int height, boolean srgb) {
+        ByteBuffer level = memAlloc(width * height * base.channels);
+
+        // Alpha is coverage rather than colour, so it is never converted from sRGB
+        final int alphaChannel = base.channels == 4 ? 3 : STBIR_ALPHA_CHANNEL_NONE;
+        if (!stbir_resize_uint8_generic(base.levels[0], base.width, base.height, 0, level, width, height, 0,
+                base.channels, alphaChannel, 0, STBIR_EDGE_CLAMP, STBIR_FILTER_DEFAULT,
+                srgb ? STBIR_COLORSPACE_SRGB : STBIR_COLORSPACE_LINEAR)) {
+            throw new IllegalStateException("Failed to resize texture to " + width + "x" + height);
+        }
+        return level;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL41.*;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// Stores linked programs on disk with glGetProgramBinary so later launches can skip compilation
+// Enable by pointing the learnOpenGl.shaderCacheDir system property at a writable directory
+public class ProgramBinaryCache {
+    private static final Logger logger = Logger.getAnonymousLogger();
+    public static final String CACHE_DIR_PROPERTY = "learnOpenGl.shaderCacheDir";
+    private static final String FILE_EXTENSION = ".bin";
+
+    private final Path directory;
+
+    ProgramBinaryCache(Path directory) {
+        this.directory = directory;
+    }
+
+    // Returns the cache configured through the system property, or null when caching is disabled or unsupported
+    static ProgramBinaryCache fromSystemProperty() {
+        final String directory = System.getProperty(CACHE_DIR_PROPERTY);
+        if (directory == null || directory.isEmpty() || !isSupported()) {
+            return null;
+        }
+        return new ProgramBinaryCache(Paths.get(directory));
+    }
+
+    static boolean isSupported() {
+        GLCapabilities capabilities = GL.getCapabilities();
+        if (!capabilities.OpenGL41 && !capabilities.GL_ARB_get_program_binary) {
+            return false;
+        }
+
+        // Drivers may expose the extension without supporting a single binary format
+        return glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+    }
+
+    // Binaries are only valid for the exact driver that produced them, so the driver strings are part of the key
+    String key(ShaderSource vertexSource, ShaderSource fragmentSource) {
+        final long driverHash = ShaderPreprocessor.hash(glGetString(GL_VENDOR) + "\n" + glGetString(GL_RENDERER) + "\n" + glGetString(GL_VERSION));
+        return String.format("%016x%016x%016x", vertexSource.hash, fragmentSource.hash, driverHash);
+    }
+
+    // Must be called before linking, otherwise the driver is free to not keep a retrievable binary around
+    void prepare(int program) {
+        glProgramParameteri(program, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+    }
+
+    // Returns a linked program, or 0 on a cache miss or when the driver rejects the stored binary
+    int load(String key) {
+        final Path file = directory.resolve(key + FILE_EXTENSION);
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+
+        ByteBuffer binary = null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The format comes first, an entry without a binary after it was truncated
+            if (channel.size() <= Integer.BYTES || channel.size() > Integer.MAX_VALUE) {
+                logger.info("Discarding truncated program binary: " + file);
+                Files.deleteIfExists(file);
+                return 0;
+            }
+
+            binary = memAlloc((int) channel.size());
+            while (binary.hasRemaining() && channel.read(binary) >= 0) {
+                // Keep reading until the whole file is in memory
+            }
+            binary.flip();
+
+            final int binaryFormat = binary.getInt(0);
+            binary.position(Integer.BYTES);
+
+            int program = glCreateProgram();
+            glProgramBinary(program, binaryFormat, binary);
+            if (glGetProgrami(program, GL_LINK_STATUS) == GL_TRUE) {
+                return program;
+            }
+
+            // A driver update invalidates old binaries, drop the entry so it gets rebuilt
+            logger.info("Discarding rejected program binary: " + file);
+            glDeleteProgram(program);
+            Files.deleteIfExists(file);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to read program binary: " + e.getMessage());
+        } finally {
+            if (binary != null) {
+                memFree(binary);
+            }
+        }
+
+        return 0;
+    }
+
+    void store(String key, int program) {
+        if (glGetProgrami(program, GL_LINK_STATUS) != GL_TRUE) {
+            return;
+        }
+
+        final int length = glGetProgrami(program, GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) {
+            return;
+        }
+
+        ByteBuffer binary = memAlloc(Integer.BYTES + length);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer writtenLength = stack.mallocInt(1);
+            IntBuffer binaryFormat = stack.mallocInt(1);
+
+            binary.position(Integer.BYTES);
+            glGetProgramBinary(program, writtenLength, binaryFormat, binary);
+            binary.putInt(0, binaryFormat.get(0));
+            binary.position(0);
+            binary.limit(Integer.BYTES + writtenLength.get(0));
+
+            // Write to a temporary file first so a crash never leaves a truncated entry behind
+            Files.createDirectories(directory);
+            final Path temporary = Files.createTempFile(directory, key, ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (binary.hasRemaining()) {
+                    channel.write(binary);
+                }
+            }
+            Files.move(temporary, directory.resolve(key + FILE_EXTENSION), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Failed to store program binary: " + e.getMessage());
+        } finally {
+            memFree(binary);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.lwjgl.opengl.EXTTextureFilterAnisotropic.GL_MAX_TEXTURE_MAX_ANISOTROPY_EXT;
+import static org.lwjgl.opengl.EXTTextureFilterAnisotropic.GL_TEXTURE_MAX_ANISOTROPY_EXT;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_WRAP_R;
+import static org.lwjgl.opengl.GL33.*;
+
+// Hands out one sampler object per distinct sampler state, so textures no longer carry their own
+// wrapping and filtering parameters and any number of them can share a handful of samplers
+// Samplers are bound per texture unit and override the parameters stored in the texture
+public class SamplerCache {
+    public static final State LINEAR_REPEAT = new State(GL_REPEAT, GL_REPEAT, GL_REPEAT, GL_LINEAR, GL_LINEAR, 1.0f);
+    public static final State LINEAR_CLAMP = new State(GL_CLAMP_TO_EDGE, GL_CLAMP_TO_EDGE, GL_CLAMP_TO_EDGE, GL_LINEAR, GL_LINEAR, 1.0f);
+    public static final State MIPMAPPED_REPEAT = new State(GL_REPEAT, GL_REPEAT, GL_REPEAT, GL_LINEAR_MIPMAP_LINEAR, GL_LINEAR, 1.0f);
+
+    private final Map<State, Integer> samplers = new HashMap<>();
+    private final float maxSupportedAnisotropy;
+
+    // Must be created on the GL thread, samplers belong to the context that is current there
+    SamplerCache() {
+        GLCapabilities capabilities = GL.getCapabilities();
+        maxSupportedAnisotropy = capabilities.GL_EXT_texture_filter_anisotropic || capabilities.GL_ARB_texture_filter_anisotropic
+                ? glGetFloat(GL_MAX_TEXTURE_MAX_ANISOTROPY_EXT)
+                : 1.0f;
+    }
+
+    // Creates the sampler the first time a state is asked for, every later call returns the same one
+    int get(State state) {
+        Integer sampler = samplers.get(state);
+        if (sampler == null) {
+            sampler = create(state);
+            samplers.put(state, sampler);
+        }
+        return sampler;
+    }
+
+    int size() {
+        return samplers.size();
+    }
+
+    void delete() {
+        for (int sampler : samplers.values()) {
+            glDeleteSamplers(sampler);
+            GlStateTracker.current().samplerDeleted(sampler);
+        }
+        samplers.clear();
+    }
+
+    private int create(State state) {
+        final int sampler = glGenSamplers();
+        glSamplerParameteri(sampler, GL_TEXTURE_WRAP_S, state.wrapS);
+        glSamplerParameteri(sampler, GL_TEXTURE_WRAP_T, state.wrapT);
+        glSamplerParameteri(sampler, GL_TEXTURE_WRAP_R, state.wrapR);
+        glSamplerParameteri(sampler, GL_TEXTURE_MIN_FILTER, state.minFilter);
+        glSamplerParameteri(sampler, GL_TEXTURE_MAG_FILTER, state.magFilter);
+        if (state.maxAnisotropy > 1.0f && maxSupportedAnisotropy > 1.0f) {
+            glSamplerParameterf(sampler, GL_TEXTURE_MAX_ANISOTROPY_EXT, Math.min(state.maxAnisotropy, maxSupportedAnisotropy));
+        }
+        return sampler;
+    }
+
+    // The full state of a sampler, equal states share one sampler object
+    public static final class State {
+        public final int wrapS;
+        public final int wrapT;
+        public final int wrapR;
+        public final int minFilter;
+        public final int magFilter;
+        public final float maxAnisotropy;
+
+        State(int wrapS, int wrapT, int wrapR, int minFilter, int magFilter, float maxAnisotropy) {
+            this.wrapS = wrapS;
+            this.wrapT = wrapT;
+            this.wrapR = wrapR;
+            this.minFilter = minFilter;
+            this.magFilter = magFilter;
+            this.maxAnisotropy = maxAnisotropy;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof State)) {
+                return false;
+            }
+            State state = (State) other;
+            return wrapS == state.wrapS && wrapT == state.wrapT && wrapR == state.wrapR
+                    && minFilter == state.minFilter && magFilter == state.magFilter
+                    && Float.compare(maxAnisotropy, state.maxAnisotropy) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = wrapS;
+            hash = 31 * hash + wrapT;
+            hash = 31 * hash + wrapR;
+            hash = 31 * hash + minFilter;
+            hash = 31 * hash + magFilter;
+            return 31 * hash + Float.floatToIntBits(maxAnisotropy);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+// Watches a shader source directory (e.g. src/main/resources) and swaps changed programs in at a frame boundary.
+// Reading and preprocessing happen on a background thread, the render thread only issues the compile in poll()
+// and checks on it in later frames. With KHR_parallel_shader_compile that never blocks, without it the status
+// check waits for the driver in the frame the new program is swapped in.
+// Enable by pointing the learnOpenGl.shaderHotReloadDir system property at the directory to watch.
+public class ShaderHotReloader implements AutoCloseable {
+    private static final Logger logger = Logger.getAnonymousLogger();
+    public static final String SOURCE_DIR_PROPERTY = "learnOpenGl.shaderHotReloadDir";
+
+    // Editors often write a file in several steps, wait for this long without events before reloading
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final Path sourceDirectory;
+    private final WatchService watchService;
+    private final Thread watcher;
+    private volatile boolean running = true;
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final Queue<Reload> preprocessed = new ConcurrentLinkedQueue<>();
+
+    // Only touched by the render thread
+    private final List<Reload> compiling = new ArrayList<>();
+    private long lastPollNanos = 0;
+    private long maxPollNanos = 0;
+    private long reloadCount = 0;
+    private long failedReloadCount = 0;
+
+    ShaderHotReloader(Path sourceDirectory) throws IOException {
+        this.sourceDirectory = sourceDirectory.toAbsolutePath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.sourceDirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+        watcher = new Thread(this::watch, "shader-hot-reload");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    // Returns the reloader configured through the system property, or null when hot reloading is disabled
+    static ShaderHotReloader fromSystemProperty() {
+        final String directory = System.getProperty(SOURCE_DIR_PROPERTY);
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return new ShaderHotReloader(Paths.get(directory));
+        } catch (IOException e) {
+            logger.severe("Failed to watch shader directory " + directory + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    void register(CustomShader shader, URL vertexPath, URL fragmentPath) {
+        register(shader, vertexPath, fragmentPath, Collections.emptyMap());
+    }
+
+    // The shader is reloaded whenever one of its files, includes among them, changes in the watched directory
+    void register(CustomShader shader, URL vertexPath, URL fragmentPath, Map<String, String> defines) {
+        Registration registration = new Registration(shader,
+                ShaderPreprocessor.fileName(vertexPath), ShaderPreprocessor.fileName(fragmentPath), new HashMap<>(defines));
+        registration.files = filesOf(preprocess(registration.vertexName, registration.defines), preprocess(registration.fragmentName, registration.defines));
+        registrations.add(registration);
+    }
+
+    // Call once per frame on the render thread, before any drawing
+    void poll() {
+        final long start = System.nanoTime();
+
+        // Start compiling everything the watcher thread has prepared since the last frame
+        Reload reload;
+        while ((reload = preprocessed.poll()) != null) {
+            ShaderBatch batch = new ShaderBatch();
+            reload.pending = batch.submit(reload.vertexSource, reload.fragmentSource);
+            batch.start();
+            compiling.add(reload);
+        }
+
+        // Swap in every program the driver has finished with
+        for (Iterator<Reload> iterator = compiling.iterator(); iterator.hasNext(); ) {
+            Reload compiled = iterator.next();
+            if (!compiled.pending.isDone()) {
+                continue;
+            }
+            iterator.remove();
+
+            final Registration registration = compiled.registration;
+            final String name = registration.vertexName + "/" + registration.fragmentName;
+            if (compiled.generation <= registration.appliedGeneration) {
+                // A newer edit of the same shader finished first
+                CustomShader.deleteProgram(compiled.pending.getProgram());
+            } else if (compiled.pending.succeeded()) {
+                registration.shader.replaceProgram(compiled.pending.getProgram());
+                registration.appliedGeneration = compiled.generation;
+                reloadCount++;
+                logger.info("Reloaded shader " + name);
+            } else {
+                CustomShader.deleteProgram(compiled.pending.getProgram());
+                failedReloadCount++;
+                logger.warning("Keeping the previous program for " + name + ", see the compile errors above");
+            }
+        }
+
+        lastPollNanos = System.nanoTime() - start;
+        maxPollNanos = Math.max(maxPollNanos, lastPollNanos);
+    }
+
+    // Time the render thread spent in the last poll(), which is the hitch a reload causes
+    long getLastPollNanos() {
+        return lastPollNanos;
+    }
+
+    long getMaxPollNanos() {
+        return maxPollNanos;
+    }
+
+    long getReloadCount() {
+        return reloadCount;
+    }
+
+    long getFailedReloadCount() {
+        return failedReloadCount;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close the shader watch service: " + e.getMessage());
+        }
+        watcher.interrupt();
+
+        for (Reload reload : compiling) {
+            CustomShader.deleteProgram(reload.pending.getProgram());
+        }
+        compiling.clear();
+    }
+
+    private void watch() {
+        Set<String> changed = new HashSet<>();
+        try {
+            while (running) {
+                WatchKey key = changed.isEmpty() ? watchService.take() : watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    // Quiet for a whole debounce window, the edit is complete. A failure must not end the
+                    // watcher, e.g. a file an editor briefly removed while saving
+                    try {
+                        reload(changed);
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, "Failed to reload shaders for " + changed, e);
+                    }
+                    changed.clear();
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        // Events were lost, treat every known file as changed
+                        for (Registration registration : registrations) {
+                            changed.addAll(registration.files);
+                        }
+                    } else {
+                        changed.add(((Path) event.context()).getFileName().toString());
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped by close()
+        }
+    }
+
+    private void reload(Set<String> changed) {
+        for (Registration registration : registrations) {
+            if (Collections.disjoint(registration.files, changed)) {
+                continue;
+            }
+
+            Reload reload = new Reload(registration, ++registration.generation,
+                    preprocess(registration.vertexName, registration.defines),
+                    preprocess(registration.fragmentName, registration.defines));
+
+            // Includes may have been added or removed by the edit
+            registration.files = filesOf(reload.vertexSource, reload.fragmentSource);
+            preprocessed.add(reload);
+        }
+    }
+
+    // Prefers the file in the watched directory and falls back to the classpath for anything else
+    private ShaderSource preprocess(String name, Map<String, String> defines) {
+        return ShaderPreprocessor.process(resolve(name), defines, this::resolve);
+    }
+
+    private URL resolve(String name) {
+        final Path file = sourceDirectory.resolve(name);
+        if (Files.isRegularFile(file)) {
+            try {
+                return file.toUri().toURL();
+            } catch (MalformedURLException e) {
+                logger.warning("Cannot resolve shader file " + file + ": " + e.getMessage());
+            }
+        }
+        return ShaderHotReloader.class.getClassLoader().getResource(name);
+    }
+
+    private static Set<String> filesOf(ShaderSource vertexSource, ShaderSource fragmentSource) {
+        Set<String> files = new HashSet<>(vertexSource.files);
+        files.addAll(fragmentSource.files);
+        return files;
+    }
+
+    private static class Registration {
+        private final CustomShader shader;
+        private final String vertexName;
+        private final String fragmentName;
+        private final Map<String, String> defines;
+
+        // Written by the watcher thread
+        private volatile Set<String> files = Collections.emptySet();
+        private volatile long generation = 0;
+
+        // Written by the render thread
+        private long appliedGeneration = 0;
+
+        private Registration(CustomShader shader, String vertexName, String fragmentName, Map<String, String> defines) {
+            this.shader = shader;
+            this.vertexName = vertexName;
+            this.fragmentName = fragmentName;
+            this.defines = defines;
+        }
+    }
+
+    private static class Reload {
+        private final Registration registration;
+        private final long generation;
+        private final ShaderSource vertexSource;
+        private final ShaderSource fragmentSource;
+        private ShaderBatch.PendingProgram pending;
+
+        private Reload(Registration registration, long generation, ShaderSource vertexSource, ShaderSource fragmentSource) {
+            this.registration = registration;
+            this.generation = generation;
+            this.vertexSource = vertexSource;
+            this.fragmentSource = fragmentSource;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Fully expanded GLSL source as produced by the ShaderPreprocessor
+public class ShaderSource {
+    // Matches the "<source>:<line>(" (Mesa) and "<source>(<line>)" (NVIDIA) prefixes of compile errors
+    private static final Pattern LOG_LOCATION = Pattern.compile("^(\\d+)([:(])(\\d+)", Pattern.MULTILINE);
+
+    public final String text;
+    public final long hash;
+    // Index is the source string number used in the emitted #line directives
+    public final List<String> files;
+
+    ShaderSource(String text, long hash, List<String> files) {
+        this.text = text;
+        this.hash = hash;
+        this.files = Collections.unmodifiableList(files);
+    }
+
+    // Replaces the source string numbers in a driver info log by the names of the original files
+    String translateLog(String infoLog) {
+        Matcher matcher = LOG_LOCATION.matcher(infoLog);
+        StringBuilder builder = new StringBuilder();
+        while (matcher.find()) {
+            final int fileIndex = Integer.parseInt(matcher.group(1));
+            final String file = fileIndex < files.size() ? files.get(fileIndex) : matcher.group(1);
+            matcher.appendReplacement(builder, Matcher.quoteReplacement(file + matcher.group(2) + matcher.group(3)));
+        }
+        matcher.appendTail(builder);
+        return builder.toString();
+    }
+}
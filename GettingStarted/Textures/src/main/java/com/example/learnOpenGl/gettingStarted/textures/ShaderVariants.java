@@ -0,0 +1,88 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// One vertex and fragment source plus a set of feature flags, every requested combination is compiled
+// on first use with the enabled flags as #defines. Only the most recently used variants are kept alive,
+// evicted programs are deleted, so do not hold on to a variant across frames but call get() again.
+public class ShaderVariants {
+    private final URL vertexPath;
+    private final URL fragmentPath;
+    private final List<String> features;
+    private final Map<Long, CustomShader> variants;
+
+    ShaderVariants(URL vertexPath, URL fragmentPath, int capacity, String... features) {
+        if (features.length > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " features are supported");
+        }
+
+        this.vertexPath = vertexPath;
+        this.fragmentPath = fragmentPath;
+        this.features = Collections.unmodifiableList(Arrays.asList(features));
+
+        // Access ordered, so the eldest entry is the least recently used variant
+        this.variants = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CustomShader> eldest) {
+                if (size() > capacity) {
+                    eldest.getValue().delete();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    CustomShader get(String... enabledFeatures) {
+        return get(featureMask(enabledFeatures));
+    }
+
+    // Bit i of the mask enables the i-th feature passed to the constructor
+    CustomShader get(long featureMask) {
+        CustomShader shader = variants.get(featureMask);
+        if (shader == null) {
+            shader = new CustomShader(vertexPath, fragmentPath, defines(featureMask));
+            variants.put(featureMask, shader);
+        }
+        return shader;
+    }
+
+    long featureMask(String... enabledFeatures) {
+        long mask = 0;
+        for (String feature : enabledFeatures) {
+            final int index = features.indexOf(feature);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown shader feature: " + feature);
+            }
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    int size() {
+        return variants.size();
+    }
+
+    void delete() {
+        for (CustomShader shader : variants.values()) {
+            shader.delete();
+        }
+        variants.clear();
+    }
+
+    private Map<String, String> defines(long featureMask) {
+        Map<String, String> defines = new HashMap<>();
+        for (int i = 0; i < features.size(); i++) {
+            if ((featureMask & (1L << i)) != 0) {
+                defines.put(features.get(i), "");
+            }
+        }
+        return defines;
+    }
+}
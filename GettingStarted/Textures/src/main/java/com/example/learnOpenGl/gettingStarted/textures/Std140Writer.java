@@ -0,0 +1,81 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import org.joml.Matrix4fc;
+import org.joml.Vector2fc;
+import org.joml.Vector3fc;
+import org.joml.Vector4fc;
+
+import java.nio.ByteBuffer;
+
+// Packs values into a buffer following the std140 layout rules, in declaration order of the uniform block
+// All writes are absolute so nothing is allocated and the buffer position is left untouched
+public class Std140Writer {
+    private final ByteBuffer buffer;
+    private int offset = 0;
+
+    Std140Writer(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    Std140Writer reset() {
+        offset = 0;
+        return this;
+    }
+
+    // Number of bytes written so far, including padding
+    int offset() {
+        return offset;
+    }
+
+    Std140Writer putFloat(float value) {
+        align(4);
+        buffer.putFloat(offset, value);
+        offset += 4;
+        return this;
+    }
+
+    Std140Writer putInt(int value) {
+        align(4);
+        buffer.putInt(offset, value);
+        offset += 4;
+        return this;
+    }
+
+    Std140Writer putBool(boolean value) {
+        return putInt(value ? 1 : 0);
+    }
+
+    Std140Writer putVector2f(Vector2fc value) {
+        align(8);
+        value.get(offset, buffer);
+        offset += 8;
+        return this;
+    }
+
+    // A vec3 is aligned like a vec4 but a following scalar may use its last four bytes
+    Std140Writer putVector3f(Vector3fc value) {
+        align(16);
+        value.get(offset, buffer);
+        offset += 12;
+        return this;
+    }
+
+    Std140Writer putVector4f(Vector4fc value) {
+        align(16);
+        value.get(offset, buffer);
+        offset += 16;
+        return this;
+    }
+
+    // Written as four vec4 columns, which matches JOML's column major storage
+    Std140Writer putMatrix4f(Matrix4fc value) {
+        align(16);
+        value.get(offset, buffer);
+        offset += 64;
+        return this;
+    }
+
+    private void align(int alignment) {
+        offset = (offset + alignment - 1) & -alignment;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import org.joml.Vector4f;
+import org.lwjgl.glfw.GLFWFramebufferSizeCallbackI;
+import org.lwjgl.opengl.GL;
+
+import java.net.URL;
+import java.util.logging.Logger;
+
+import static java.lang.System.exit;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+// Draws a grid of differently textured quads with one texture bind and one draw call
+// Start with the argument "array" to use a texture array instead of an atlas
+public class TextureAtlasExample {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    // Window size
+    final static int width = 800;
+    final static int height = 600;
+
+    // Quads per row and column
+    private static final int GRID_SIZE = 16;
+
+    // Vertex and fragment shaders
+    private static final URL VERTEX_SHADER_PATH = TextureAtlasExample.class.getClassLoader().getResource("atlas.vs");
+    private static final URL ATLAS_FRAGMENT_SHADER_PATH = TextureAtlasExample.class.getClassLoader().getResource("atlas.fs");
+    private static final URL ARRAY_FRAGMENT_SHADER_PATH = TextureAtlasExample.class.getClassLoader().getResource("textureArray.fs");
+
+    // Texture
+    private static final ImageSource[] TEXTURES = {
+            ImageSource.fromResource("container.jpg"),
+            ImageSource.fromResource("awesomeface.png")
+    };
+
+    // Corners of a quad in its own 0..1 space
+    private static final float[][] CORNERS = {
+            {1.0f, 1.0f}, // top right
+            {1.0f, 0.0f}, // bottom right
+            {0.0f, 0.0f}, // bottom left
+            {0.0f, 1.0f}  // top left
+    };
+
+    // Callbacks
+    private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
+
+    // Process user input
+    private static void processInput(long window) {
+        if (glfwGetKey(window, GLFW_KEY_ESCAPE) == GLFW_PRESS) {
+            glfwSetWindowShouldClose(window, true);
+        }
+    }
+
+    // Every quad gets a position in the grid and texture coordinates into the shared texture,
+    // either remapped into its atlas region or tagged with its array layer
+    private static void setUpVertexData(int vao, int vbo, int ebo, TextureAtlas atlas, int[] images) {
+        final int quads = GRID_SIZE * GRID_SIZE;
+        final VertexBuilder vertices = new VertexBuilder(quads * 4 * 5, quads * 6);
+        final float quadSize = 2.0f / GRID_SIZE;
+
+        for (int quad = 0; quad < quads; quad++) {
+            final int image = images[quad % images.length];
+            final float x = -1.0f + (quad % GRID_SIZE) * quadSize;
+            final float y = -1.0f + (quad / GRID_SIZE) * quadSize;
+            final Vector4f uvTransform = atlas != null ? atlas.getUvTransform(image) : new Vector4f(1.0f, 1.0f, 0.0f, 0.0f);
+
+            for (float[] corner : CORNERS) {
+                vertices.position(x + corner[0] * quadSize * 0.9f, y + corner[1] * quadSize * 0.9f)
+                        .uvw(corner[0] * uvTransform.x + uvTransform.z, corner[1] * uvTransform.y + uvTransform.w,
+                                atlas != null ? 0.0f : image);
+            }
+
+            final int first = quad * 4;
+            vertices.triangle(first, first + 1, first + 3)
+                    .triangle(first + 1, first + 2, first + 3);
+        }
+
+        glBindVertexArray(vao);
+
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        glBufferData(GL_ARRAY_BUFFER, vertices.getVertices(), GL_STATIC_DRAW);
+
+        // Feed the position vertices to OpenGL
+        glVertexAttribPointer(0, 2, GL_FLOAT, false, 5 * Float.BYTES, 0);
+        glEnableVertexAttribArray(0);
+
+        // Feed the texture vertices to OpenGl, the third component is the array layer
+        glVertexAttribPointer(1, 3, GL_FLOAT, false, 5 * Float.BYTES, 2 * Float.BYTES);
+        glEnableVertexAttribArray(1);
+
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, vertices.getIndices(), GL_STATIC_DRAW);
+        vertices.close();
+
+        // Reset the bind
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+    }
+
+    public static void main(String[] args) {
+        final boolean useArray = args.length > 0 && args[0].equals("array");
+
+        // Initialize glfw window
+        glfwInit();
+
+        // Configure glfw using glfwWindowHint(option, value)
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+
+        // Instantiate the GLFW window
+        final long window = glfwCreateWindow(width, height, "LearnOpenGl", NULL, NULL);
+        if (window == NULL) {
+            System.out.println("Failed to create GLFW window");
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Make the window current. This is needed to load the OpenGL functions
+        glfwMakeContextCurrent(window);
+
+        // Load OpenGL functions
+        try {
+            GL.createCapabilities();
+        } catch (IllegalStateException e) {
+            System.out.println("Failed to initialize OpenGL");
+            e.printStackTrace();
+            System.out.println(e.getCause().getMessage());
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Initialise the framebuffer callback function
+        glfwSetFramebufferSizeCallback(window, FRAMEBUFFER_SIZE_CALLBACK);
+
+        // Pack every image into one texture
+        final int[] images = new int[TEXTURES.length];
+        final TextureAtlas atlas = useArray ? null : new TextureAtlas(2);
+        final TextureArray array = useArray ? new TextureArray() : null;
+        for (int i = 0; i < TEXTURES.length; i++) {
+            images[i] = useArray ? array.add(TEXTURES[i], true) : atlas.add(TEXTURES[i], true);
+            if (images[i] < 0) {
+                glfwTerminate();
+                exit(-1);
+            }
+        }
+        final int textureTarget = useArray ? GL_TEXTURE_2D_ARRAY : GL_TEXTURE_2D;
+        final int texture;
+        if (useArray) {
+            array.build();
+            texture = array.getTexture();
+        } else {
+            atlas.build();
+            texture = atlas.getTexture();
+        }
+
+        // Create a shader program
+        CustomShader shader = new CustomShader(VERTEX_SHADER_PATH, useArray ? ARRAY_FRAGMENT_SHADER_PATH : ATLAS_FRAGMENT_SHADER_PATH);
+        shader.use();
+        shader.setInt(useArray ? "textures" : "atlas", 0);
+
+        // Initialise the vertex data
+        final int vao = glGenVertexArrays();
+        final int vbo = glGenBuffers();
+        final int ebo = glGenBuffers();
+        setUpVertexData(vao, vbo, ebo, atlas, images);
+
+        // The shared texture stays bound for the whole run, no per quad binds are needed
+        glActiveTexture(GL_TEXTURE0);
+        glBindTexture(textureTarget, texture);
+
+        // Render loop
+        while(!glfwWindowShouldClose(window)) {
+            // Input
+            processInput(window);
+
+            // Render
+            glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
+            glClear(GL_COLOR_BUFFER_BIT);
+
+            // Use the shader program
+            shader.use();
+
+            // All quads in a single draw call
+            GlStateTracker.current().bindVertexArray(vao);
+            glDrawElements(GL_TRIANGLES, GRID_SIZE * GRID_SIZE * 6, GL_UNSIGNED_INT, 0);
+
+            // Check and call events
+            // Swap the buffers
+            glfwSwapBuffers(window);
+            glfwPollEvents();
+            GlStateTracker.current().endFrame();
+        }
+
+        logger.info("Binds in the last frame issued: " + GlStateTracker.current().getLastFrameIssuedBinds()
+                + ", skipped: " + GlStateTracker.current().getLastFrameSkippedBinds());
+
+        // Deallocate all resources when no longer necessary
+        glDeleteVertexArrays(vao);
+        glDeleteBuffers(vbo);
+        glDeleteBuffers(ebo);
+        if (useArray) {
+            array.delete();
+        } else {
+            atlas.delete();
+        }
+        shader.delete();
+
+        glfwTerminate();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_MAX_LEVEL;
+import static org.lwjgl.opengl.GL12.glTexImage3D;
+import static org.lwjgl.opengl.GL21.GL_SRGB8;
+import static org.lwjgl.opengl.GL21.GL_SRGB8_ALPHA8;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL42.glTexStorage2D;
+import static org.lwjgl.opengl.GL42.glTexStorage3D;
+
+// Picks the sized internal format that matches the decoded pixels exactly, so uploads are plain copies
+// instead of the driver converting (and e.g. dropping alpha) on the way in
+// Storage is allocated immutable with glTexStorage when the driver supports it, otherwise level by level
+public class TextureFormat {
+
+    static int internalFormat(int channels, boolean srgb) {
+        switch (channels) {
+            case 1:
+                return GL_R8;
+            case 2:
+                return GL_RG8;
+            case 3:
+                return srgb ? GL_SRGB8 : GL_RGB8;
+            default:
+                return srgb ? GL_SRGB8_ALPHA8 : GL_RGBA8;
+        }
+    }
+
+    // The client side layout of tightly packed 8 bit pixels with this many channels
+    static int format(int channels) {
+        switch (channels) {
+            case 1:
+                return GL_RED;
+            case 2:
+                return GL_RG;
+            case 3:
+                return GL_RGB;
+            default:
+                return GL_RGBA;
+        }
+    }
+
+    // Levels of a complete mip chain, down to 1x1
+    static int levelCount(int width, int height) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(1, Math.max(width, height)));
+    }
+
+    static boolean hasImmutableStorage() {
+        GLCapabilities capabilities = GL.getCapabilities();
+        return capabilities.OpenGL42 || capabilities.GL_ARB_texture_storage;
+    }
+
+    // Allocates the levels of the GL_TEXTURE_2D bound to the active unit
+    static void allocate(int width, int height, int levels, int channels, boolean srgb) {
+        final int internalFormat = internalFormat(channels, srgb);
+        if (hasImmutableStorage()) {
+            glTexStorage2D(GL_TEXTURE_2D, levels, internalFormat, width, height);
+            return;
+        }
+
+        for (int level = 0; level < levels; level++) {
+            glTexImage2D(GL_TEXTURE_2D, level, internalFormat, Math.max(1, width >> level), Math.max(1, height >> level),
+                    0, format(channels), GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        }
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, levels - 1);
+    }
+
+    // Allocates the levels of the GL_TEXTURE_2D_ARRAY bound to the active unit
+    static void allocateArray(int width, int height, int layers, int levels, int channels, boolean srgb) {
+        final int internalFormat = internalFormat(channels, srgb);
+        if (hasImmutableStorage()) {
+            glTexStorage3D(GL_TEXTURE_2D_ARRAY, levels, internalFormat, width, height, layers);
+            return;
+        }
+
+        for (int level = 0; level < levels; level++) {
+            glTexImage3D(GL_TEXTURE_2D_ARRAY, level, internalFormat, Math.max(1, width >> level), Math.max(1, height >> level),
+                    layers, 0, format(channels), GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        }
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAX_LEVEL, levels - 1);
+    }
+
+    // Copies tightly packed pixels into an allocated level of the bound GL_TEXTURE_2D
+    static void upload(int level, int width, int height, int channels, ByteBuffer pixels) {
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        glTexSubImage2D(GL_TEXTURE_2D, level, 0, 0, width, height, format(channels), GL_UNSIGNED_BYTE, pixels);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_MAX_LEVEL;
+import static org.lwjgl.opengl.GL30.glGenerateMipmap;
+import static org.lwjgl.stb.STBImage.*;
+
+// Decodes images on worker threads and uploads them on the GL thread, a bounded number of bytes per frame
+// Textures are handed out immediately and show a placeholder until their upload has finished
+// Decoded images are kept in the TextureCache when -DlearnOpenGl.textureCacheDir is set
+public class TextureLoader implements AutoCloseable {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    // Opaque magenta, hard to miss when a texture never finishes loading
+    private static final int PLACEHOLDER_COLOR = 0xFFFF00FF;
+
+    // Enough pixel buffer slots to keep a frame's upload budget in flight
+    private static final int UPLOAD_SLOTS = 3;
+    private static final long UPLOAD_SLOT_SIZE = 4 * 1024 * 1024;
+
+    private final ExecutorService decoders;
+    private final BlockingQueue<Decoded> decoded;
+    private final long uploadBudget;
+    private final int placeholder;
+    private final PboUploader uploader;
+    private final SamplerCache samplers = new SamplerCache();
+    private final int sampler;
+    private final TextureCache cache = TextureCache.fromSystemProperty();
+    private final List<PendingTexture> pending = new ArrayList<>();
+
+    private long uploadedBytes = 0;
+
+    // Must be created on the GL thread. Workers block once queueCapacity decoded images are waiting,
+    // which bounds the memory held by images the GL thread has not uploaded yet
+    TextureLoader(int decoderThreads, int queueCapacity, long uploadBytesPerFrame) {
+        decoders = Executors.newFixedThreadPool(decoderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Texture decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        decoded = new ArrayBlockingQueue<>(queueCapacity);
+        uploadBudget = uploadBytesPerFrame;
+
+        placeholder = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, placeholder);
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, 1, 1, 0, GL_RGBA, GL_UNSIGNED_BYTE, new int[]{PLACEHOLDER_COLOR});
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, 0);
+        glBindTexture(GL_TEXTURE_2D, 0);
+
+        // Creating the placeholder bound it behind the state tracker's back
+        GlStateTracker.current().invalidateTextures();
+
+        // Every texture of the loader ends at its last level, so one mipmapped sampler fits all of them
+        sampler = samplers.get(SamplerCache.MIPMAPPED_REPEAT);
+        uploader = new PboUploader(UPLOAD_SLOTS, UPLOAD_SLOT_SIZE);
+    }
+
+    // The examples render without GL_FRAMEBUFFER_SRGB, so their textures are loaded as linear data
+    PendingTexture load(ImageSource source, boolean flipVertically) {
+        return load(source, flipVertically, false);
+    }
+
+    // Returns right away, the image is decoded in the background and uploaded by processUploads()
+    // Colour textures should be loaded as sRGB, data such as normal maps must not be
+    PendingTexture load(ImageSource source, boolean flipVertically, boolean srgb) {
+        PendingTexture texture = new PendingTexture(source, srgb);
+        pending.add(texture);
+
+        decoders.execute(() -> {
+            // Anything thrown here would be swallowed by the executor and leave the texture pending forever
+            Decoded image;
+            try {
+                image = CompressedTexture.isCompressedContainer(source.toString())
+                        ? new Decoded(texture, readCompressed(source))
+                        : new Decoded(texture, decode(source, flipVertically));
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Failed to load texture: " + source, e);
+                image = new Decoded(texture, (TextureImage) null);
+            }
+            try {
+                decoded.put(image);
+            } catch (InterruptedException e) {
+                // The loader was closed before the image could be handed over
+                image.free();
+                Thread.currentThread().interrupt();
+            }
+        });
+        return texture;
+    }
+
+    // Binds the texture, or the placeholder while it is loading, together with the sampler of the loader
+    void bind(int unit, PendingTexture texture) {
+        bind(unit, texture.getTexture());
+    }
+
+    void bind(int unit, int texture) {
+        final GlStateTracker state = GlStateTracker.current();
+        state.bindTexture(unit, GL_TEXTURE_2D, texture);
+        state.bindSampler(unit, sampler);
+    }
+
+    // Call once per frame on the GL thread. At least one image is uploaded so large ones cannot stall forever
+    void processUploads() {
+        long budget = uploadBudget;
+        Decoded image;
+        while ((budget > 0 || budget == uploadBudget) && (image = decoded.poll()) != null) {
+            budget -= upload(image);
+        }
+
+        // Uploading binds textures behind the state tracker's back
+        if (budget != uploadBudget) {
+            GlStateTracker.current().invalidateTextures();
+        }
+    }
+
+    // True once every requested texture has been uploaded or has failed
+    boolean isIdle() {
+        for (PendingTexture texture : pending) {
+            if (!texture.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    int getPlaceholder() {
+        return placeholder;
+    }
+
+    // Stops the decoders and frees anything still waiting for upload, uploaded textures stay alive
+    @Override
+    public void close() {
+        decoders.shutdownNow();
+        try {
+            decoders.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Decoded image;
+        while ((image = decoded.poll()) != null) {
+            image.free();
+        }
+        glDeleteTextures(placeholder);
+        GlStateTracker.current().textureDeleted(placeholder);
+        samplers.delete();
+        uploader.delete();
+    }
+
+    // Runs on a decoder thread. The encoded bytes are read once, hashed for the cache and decoded on a miss
+    private TextureImage decode(ImageSource source, boolean flipVertically) {
+        final ByteBuffer encoded;
+        try {
+            encoded = source.read();
+        } catch (IOException e) {
+            logger.severe("Failed to load texture: " + source + ": " + e.getMessage());
+            return null;
+        }
+
+        final long key = cache != null ? TextureCache.key(encoded, flipVertically) : 0;
+        if (cache != null) {
+            TextureImage cached = cache.load(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        TextureImage image = decode(source, encoded, flipVertically, 0);
+        if (image != null && cache != null) {
+            cache.store(key, image);
+        }
+        return image;
+    }
+
+    // Block compressed containers are only parsed, the levels stay in the file's bytes until the upload
+    private static CompressedTexture readCompressed(ImageSource source) {
+        try {
+            return CompressedTexture.read(source);
+        } catch (IOException e) {
+            logger.severe("Failed to load texture: " + source + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    static TextureImage decode(ImageSource source, boolean flipVertically, int desiredChannels) {
+        try {
+            return decode(source, source.read(), flipVertically, desiredChannels);
+        } catch (IOException e) {
+            logger.severe("Failed to load texture: " + source + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Decodes with stb_image, keeping the channels of the file unless desiredChannels asks for a specific count
+    // The flip flag is set per thread, the global one would race between loads
+    private static TextureImage decode(ImageSource source, ByteBuffer encoded, boolean flipVertically, int desiredChannels) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer width = stack.mallocInt(1);
+            IntBuffer height = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+
+            stbi_set_flip_vertically_on_load_thread(flipVertically ? 1 : 0);
+            ByteBuffer data = stbi_load_from_memory(encoded, width, height, channels, desiredChannels);
+            if (data == null) {
+                logger.severe("Failed to load texture: " + source + ": " + stbi_failure_reason());
+                return null;
+            }
+
+            final int decodedChannels = desiredChannels != 0 ? desiredChannels : channels.get(0);
+            return new TextureImage(width.get(0), height.get(0), decodedChannels, new ByteBuffer[]{data}, true);
+        }
+    }
+
+    private long upload(Decoded decoded) {
+        PendingTexture texture = decoded.texture;
+        TextureImage image = decoded.image;
+        CompressedTexture compressed = decoded.compressed;
+        if (image == null && compressed == null) {
+            texture.failed = true;
+            return 0;
+        }
+        if (texture.deleted) {
+            decoded.free();
+            return 0;
+        }
+        if (compressed != null && !CompressedTexture.isSupported(compressed.internalFormat)) {
+            logger.severe("Compressed texture format is not supported by this driver: " + texture.source);
+            texture.failed = true;
+            return 0;
+        }
+
+        // Wrapping and filtering come from the sampler bound next to the texture, see bind()
+        final int texture2d = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, texture2d);
+
+        // Compressed blocks go to the driver as they are, straight out of the mapped file
+        if (compressed != null) {
+            compressed.upload();
+            glBindTexture(GL_TEXTURE_2D, 0);
+
+            texture.texture = texture2d;
+            texture.size = compressed.size();
+            uploadedBytes += compressed.size();
+            return compressed.size();
+        }
+
+        // Allocate the storage of every level in the exact format of the pixels, which are then streamed in
+        // through a pixel buffer without any conversion
+        final int format = TextureFormat.format(image.channels);
+        final int levels = image.levels.length > 1 ? image.levels.length : TextureFormat.levelCount(image.width, image.height);
+        TextureFormat.allocate(image.width, image.height, levels, image.channels, texture.srgb);
+        for (int level = 0; level < image.levels.length; level++) {
+            uploader.upload(texture2d, level, image.levelWidth(level), image.levelHeight(level), format, image.levels[level]);
+        }
+
+        // Only build the mip chain on the GPU when the image did not come with one
+        glBindTexture(GL_TEXTURE_2D, texture2d);
+        if (image.levels.length == 1) {
+            glGenerateMipmap(GL_TEXTURE_2D);
+        }
+        glBindTexture(GL_TEXTURE_2D, 0);
+
+        final long size = image.size();
+        texture.size = residentSize(image);
+        image.free();
+
+        texture.texture = texture2d;
+        uploadedBytes += size;
+        return size;
+    }
+
+    // Drivers pad three channel textures to four, and a generated mip chain adds the levels down to 1x1
+    static long residentSize(TextureImage image) {
+        final int bytesPerPixel = image.channels == 3 ? 4 : image.channels;
+        final int levels = image.levels.length > 1 ? image.levels.length : TextureFormat.levelCount(image.width, image.height);
+        long size = 0;
+        for (int level = 0; level < levels; level++) {
+            size += (long) image.levelWidth(level) * image.levelHeight(level) * bytesPerPixel;
+        }
+        return size;
+    }
+
+    public class PendingTexture {
+        private final ImageSource source;
+        private final boolean srgb;
+
+        // Only touched on the GL thread
+        private int texture = 0;
+        private long size = 0;
+        private boolean failed = false;
+        private boolean deleted = false;
+
+        private PendingTexture(ImageSource source, boolean srgb) {
+            this.source = source;
+            this.srgb = srgb;
+        }
+
+        // The uploaded texture, or the placeholder while it is still loading or when loading failed
+        public int getTexture() {
+            return texture != 0 ? texture : placeholder;
+        }
+
+        public boolean isReady() {
+            return texture != 0;
+        }
+
+        public boolean hasFailed() {
+            return failed;
+        }
+
+        public boolean isDone() {
+            return texture != 0 || failed || deleted;
+        }
+
+        // Estimated GPU memory of the texture including its mip levels, 0 until it has been uploaded
+        public long getSize() {
+            return size;
+        }
+
+        // Safe to call while the texture is still loading, it is then dropped instead of uploaded
+        public void delete() {
+            deleted = true;
+            pending.remove(this);
+            if (texture != 0) {
+                glDeleteTextures(texture);
+                GlStateTracker.current().textureDeleted(texture);
+                texture = 0;
+            }
+        }
+    }
+
+    // Either decoded pixels or a parsed compressed container, both null when loading failed
+    private static class Decoded {
+        private final PendingTexture texture;
+        private final TextureImage image;
+        private final CompressedTexture compressed;
+
+        private Decoded(PendingTexture texture, TextureImage image) {
+            this.texture = texture;
+            this.image = image;
+            this.compressed = null;
+        }
+
+        private Decoded(PendingTexture texture, CompressedTexture compressed) {
+            this.texture = texture;
+            this.image = null;
+            this.compressed = compressed;
+        }
+
+        // Compressed levels are views of a mapping that is released by the garbage collector
+        private void free() {
+            if (image != null) {
+                image.free();
+            }
+        }
+    }
+}
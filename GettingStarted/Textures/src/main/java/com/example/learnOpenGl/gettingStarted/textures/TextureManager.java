@@ -0,0 +1,125 @@
+package com.example.learnOpenGl.gettingStarted.textures;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps the textures that were requested recently resident within a GPU memory budget
+// Every frame the least recently used textures are evicted until the budget fits again, but only
+// once they have not been requested for a number of frames; an evicted texture is streamed back in
+// through the TextureLoader the next time it is requested and shows the placeholder until then
+// The budget defaults to 64 MiB and can be changed with -DlearnOpenGl.textureBudgetBytes
+public class TextureManager {
+    public static final String BUDGET_PROPERTY = "learnOpenGl.textureBudgetBytes";
+    private static final long DEFAULT_BUDGET = 64 * 1024 * 1024;
+
+    // Roughly a second at 60 frames per second
+    private static final int DEFAULT_EVICT_AFTER_FRAMES = 60;
+
+    private final TextureLoader loader;
+    private final long budget;
+    private final int evictAfterFrames;
+
+    // Access ordered, so iteration starts at the least recently requested texture
+    private final Map<String, Entry> resident = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long frame = 0;
+    private long residentBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    TextureManager(TextureLoader loader, long budgetBytes, int evictAfterFrames) {
+        this.loader = loader;
+        this.budget = budgetBytes;
+        this.evictAfterFrames = evictAfterFrames;
+    }
+
+    static TextureManager fromSystemProperty(TextureLoader loader) {
+        return new TextureManager(loader, Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET), DEFAULT_EVICT_AFTER_FRAMES);
+    }
+
+    // Call wherever the texture is bound, the returned name is only valid for the current frame
+    int get(ImageSource source, boolean flipVertically) {
+        final String key = flipVertically ? source + "#flipped" : source.toString();
+        Entry entry = resident.get(key);
+        if (entry == null) {
+            misses++;
+            entry = new Entry(loader.load(source, flipVertically));
+            resident.put(key, entry);
+        } else {
+            hits++;
+        }
+        entry.lastUsedFrame = frame;
+        return entry.texture.getTexture();
+    }
+
+    // Binds the texture with the sampler of the loader, see get()
+    void bind(int unit, ImageSource source, boolean flipVertically) {
+        loader.bind(unit, get(source, flipVertically));
+    }
+
+    // Call once per frame after rendering, after the loader has processed its uploads
+    void endFrame() {
+        residentBytes = 0;
+        for (Entry entry : resident.values()) {
+            residentBytes += entry.texture.getSize();
+        }
+
+        Iterator<Entry> iterator = resident.values().iterator();
+        while (residentBytes > budget && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (frame - entry.lastUsedFrame < evictAfterFrames) {
+                // Everything after this one was used even more recently
+                break;
+            }
+            if (!entry.texture.isDone()) {
+                continue;
+            }
+
+            residentBytes -= entry.texture.getSize();
+            entry.texture.delete();
+            iterator.remove();
+            evictions++;
+        }
+        frame++;
+    }
+
+    long getResidentBytes() {
+        return residentBytes;
+    }
+
+    long getBudget() {
+        return budget;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    long getEvictions() {
+        return evictions;
+    }
+
+    // Deletes every resident texture, the loader is left to its owner
+    void delete() {
+        for (Entry entry : resident.values()) {
+            entry.texture.delete();
+        }
+        resident.clear();
+        residentBytes = 0;
+    }
+
+    private static class Entry {
+        private final TextureLoader.PendingTexture texture;
+        private long lastUsedFrame;
+
+        private Entry(TextureLoader.PendingTexture texture) {
+            this.texture = texture;
+        }
+    }
+}
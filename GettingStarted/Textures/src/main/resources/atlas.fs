@@ -0,0 +1,11 @@
+#version 330 core
+
+in vec3 TexCoord;
+
+uniform sampler2D atlas;
+
+out vec4 FragColor;
+
+void main() {
+  FragColor = texture(atlas, TexCoord.xy);
+}
@@ -0,0 +1,12 @@
+#version 330 core
+
+layout (location = 0) in vec2 aPos;
+layout (location = 1) in vec3 aTexCoord;
+
+// xy are atlas coordinates, z is the array layer and unused by the atlas shader
+out vec3 TexCoord;
+
+void main() {
+  gl_Position = vec4(aPos, 0.0, 1.0);
+  TexCoord = aTexCoord;
+}
@@ -6,8 +6,19 @@ in vec2 TexCoord;
 uniform sampler2D texture1;
 uniform sampler2D texture2;
 
+#ifdef VARIABLE_MIX
+uniform float mixDegree;
+#else
+const float mixDegree = 0.2;
+#endif
+
 out vec4 FragColor;
 
 void main() {
-  FragColor = mix(texture(texture1, TexCoord), texture(texture2, TexCoord), 0.2);
-};
\ No newline at end of file
+#ifdef FLIP_SECOND_TEXTURE
+  vec2 secondTexCoord = vec2(1.0 - TexCoord.x, TexCoord.y);
+#else
+  vec2 secondTexCoord = TexCoord;
+#endif
+  FragColor = mix(texture(texture1, TexCoord), texture(texture2, secondTexCoord), mixDegree);
+}
\ No newline at end of file
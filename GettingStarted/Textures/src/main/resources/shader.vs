@@ -11,4 +11,4 @@ void main() {
   gl_Position = vec4(aPos, 1.0);
   ourColor = aColor;
   TexCoord = aTexCoord;
-};
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,13 +0,0 @@
-#version 330 core
-
-in vec3 ourColor;
-in vec2 TexCoord;
-
-uniform sampler2D texture1;
-uniform sampler2D texture2;
-
-out vec4 FragColor;
-
-void main() {
-  FragColor = mix(texture(texture1, TexCoord), texture(texture2, vec2(1.0 - TexCoord.x, TexCoord.y)), 0.2);
-};
\ No newline at end of file
@@ -0,0 +1,11 @@
+#version 330 core
+
+in vec3 TexCoord;
+
+uniform sampler2DArray textures;
+
+out vec4 FragColor;
+
+void main() {
+  FragColor = texture(textures, TexCoord);
+}
@@ -0,0 +1,214 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.util.xxhash.XXHash.XXH64;
+
+// Stores imported and optimized meshes on disk with the meshoptimizer codecs, so Assimp only ever runs once per
+// version of a model file. Entries are memory mapped on load and decoded straight from the page cache
+// Enable by pointing the learnOpenGl.meshCacheDir system property at a writable directory
+//
+// File layout, little endian: magic, mesh count, then per mesh its vertex count, vertex size, index count,
+// encoded vertex size and encoded index size, then the encoded vertices and indices of every mesh back to back
+public class MeshCache {
+    private static final Logger logger = Logger.getAnonymousLogger();
+    public static final String CACHE_DIR_PROPERTY = "learnOpenGl.meshCacheDir";
+    private static final String FILE_EXTENSION = ".lmc";
+
+    // "LMC1", bump the digit whenever the layout changes
+    private static final int MAGIC = 0x31434D4C;
+    private static final int HEADER_INTS = 2;
+    private static final int MESH_INTS = 5;
+
+    // Part of every key, bump whenever importing or optimizing produces different meshes
+    private static final long PROCESSING_VERSION = 1;
+
+    private final Path directory;
+
+    MeshCache(Path directory) {
+        this.directory = directory;
+    }
+
+    // Returns the cache configured through the system property, or null when caching is disabled
+    static MeshCache fromSystemProperty() {
+        final String directory = System.getProperty(CACHE_DIR_PROPERTY);
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        return new MeshCache(Paths.get(directory));
+    }
+
+    // Hashes the model file itself, files it references (materials, glTF buffers) are not part of the key
+    static long key(Path model) throws IOException {
+        try (FileChannel channel = FileChannel.open(model, StandardOpenOption.READ)) {
+            return XXH64(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), PROCESSING_VERSION);
+        }
+    }
+
+    // Returns the cached meshes, or null on a miss or when the entry is unreadable
+    Mesh[] load(long key) {
+        final Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer entry = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            Mesh[] meshes = read(entry);
+            if (meshes != null) {
+                return meshes;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to read cached meshes: " + e.getMessage());
+        }
+
+        // Drop the damaged entry so it gets rebuilt
+        logger.info("Discarding unreadable cached meshes: " + file);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warning("Failed to delete cached meshes: " + e.getMessage());
+        }
+        return null;
+    }
+
+    void store(long key, Mesh[] meshes) {
+        final ByteBuffer[] encodedVertices = new ByteBuffer[meshes.length];
+        final ByteBuffer[] encodedIndices = new ByteBuffer[meshes.length];
+        int size = (HEADER_INTS + MESH_INTS * meshes.length) * Integer.BYTES;
+        for (int i = 0; i < meshes.length; i++) {
+            encodedVertices[i] = MeshProcessor.encodeVertices(meshes[i].vertices, meshes[i].vertexSize);
+            encodedIndices[i] = MeshProcessor.encodeIndices(meshes[i]);
+            size += encodedVertices[i].remaining() + encodedIndices[i].remaining();
+        }
+
+        ByteBuffer entry = memAlloc(size).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            entry.putInt(MAGIC).putInt(meshes.length);
+            for (int i = 0; i < meshes.length; i++) {
+                entry.putInt(meshes[i].getVertexCount()).putInt(meshes[i].vertexSize).putInt(meshes[i].getIndexCount())
+                        .putInt(encodedVertices[i].remaining()).putInt(encodedIndices[i].remaining());
+            }
+            for (int i = 0; i < meshes.length; i++) {
+                entry.put(encodedVertices[i]).put(encodedIndices[i]);
+            }
+            entry.flip();
+
+            // Write to a temporary file first so a crash never leaves a truncated entry behind
+            Files.createDirectories(directory);
+            final Path temporary = Files.createTempFile(directory, Long.toHexString(key), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (entry.hasRemaining()) {
+                    channel.write(entry);
+                }
+            }
+            Files.move(temporary, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Failed to store cached meshes: " + e.getMessage());
+        } finally {
+            memFree(entry);
+            for (int i = 0; i < meshes.length; i++) {
+                memFree(encodedVertices[i]);
+                memFree(encodedIndices[i]);
+            }
+        }
+    }
+
+    private static Mesh[] read(ByteBuffer entry) {
+        if (entry.remaining() < HEADER_INTS * Integer.BYTES || entry.getInt(0) != MAGIC) {
+            return null;
+        }
+
+        final int meshCount = entry.getInt(Integer.BYTES);
+        if (meshCount < 0 || entry.remaining() < (HEADER_INTS + MESH_INTS * (long) meshCount) * Integer.BYTES) {
+            return null;
+        }
+
+        // Meshes decoded before a failure are freed on every way out
+        Mesh[] meshes = new Mesh[meshCount];
+        boolean complete = false;
+        try {
+            long offset = (HEADER_INTS + MESH_INTS * (long) meshCount) * Integer.BYTES;
+            for (int i = 0; i < meshCount; i++) {
+                final int header = (HEADER_INTS + MESH_INTS * i) * Integer.BYTES;
+                final int vertexCount = entry.getInt(header);
+                final int vertexSize = entry.getInt(header + Integer.BYTES);
+                final int indexCount = entry.getInt(header + 2 * Integer.BYTES);
+                final int encodedVertexSize = entry.getInt(header + 3 * Integer.BYTES);
+                final int encodedIndexSize = entry.getInt(header + 4 * Integer.BYTES);
+
+                // The codecs only assert their preconditions, so everything is checked before they see it
+                if (!isValidMesh(vertexCount, vertexSize, indexCount, encodedVertexSize, encodedIndexSize)
+                        || offset + encodedVertexSize + encodedIndexSize > entry.limit()) {
+                    return null;
+                }
+
+                ByteBuffer encodedVertices = entry.duplicate();
+                encodedVertices.position((int) offset).limit((int) offset + encodedVertexSize);
+                offset += encodedVertexSize;
+                ByteBuffer encodedIndices = entry.duplicate();
+                encodedIndices.position((int) offset).limit((int) offset + encodedIndexSize);
+                offset += encodedIndexSize;
+
+                final ByteBuffer vertices = MeshProcessor.decodeVertices(encodedVertices, vertexCount, vertexSize);
+                if (vertices == null) {
+                    return null;
+                }
+                final IntBuffer indices = MeshProcessor.decodeIndices(encodedIndices, indexCount);
+                if (indices == null) {
+                    memFree(vertices);
+                    return null;
+                }
+                meshes[i] = new Mesh(vertices, vertexSize, indices);
+
+                // Indices decode to whatever the data says, they must not reach past the vertices
+                if (!indicesInRange(indices, vertexCount)) {
+                    return null;
+                }
+            }
+            complete = true;
+            return meshes;
+        } finally {
+            if (!complete) {
+                for (Mesh mesh : meshes) {
+                    if (mesh != null) {
+                        mesh.free();
+                    }
+                }
+            }
+        }
+    }
+
+    // The vertex codec takes vertex sizes that are a multiple of 4 up to 256, the index codec whole triangles
+    private static boolean isValidMesh(int vertexCount, int vertexSize, int indexCount, int encodedVertexSize, int encodedIndexSize) {
+        return vertexCount >= 0 && vertexSize > 0 && vertexSize <= 256 && vertexSize % 4 == 0
+                && (long) vertexCount * vertexSize <= Integer.MAX_VALUE
+                && indexCount >= 0 && indexCount % 3 == 0 && (long) indexCount * Integer.BYTES <= Integer.MAX_VALUE
+                && encodedVertexSize >= 0 && encodedIndexSize >= 0;
+    }
+
+    private static boolean indicesInRange(IntBuffer indices, int vertexCount) {
+        for (int i = indices.position(); i < indices.limit(); i++) {
+            if (Integer.compareUnsigned(indices.get(i), vertexCount) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Path file(long key) {
+        return directory.resolve(String.format("%016x", key) + FILE_EXTENSION);
+    }
+}
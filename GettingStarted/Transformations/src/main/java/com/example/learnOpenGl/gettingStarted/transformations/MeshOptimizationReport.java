@@ -0,0 +1,149 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static java.lang.System.exit;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memAllocInt;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// Runs MeshProcessor on a sphere whose triangles and vertices are shuffled, the worst case for an exporter that
+// writes them in arbitrary order, and reports the vertex pipeline statistics and codec sizes. Needs no GL context
+// Exits with 1 when the cache efficiency does not improve or the codecs do not give back the same mesh
+public class MeshOptimizationReport {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    // Rings and segments of the sphere
+    private static final int RINGS = 128;
+    private static final int SEGMENTS = 256;
+
+    public static void main(String[] args) {
+        final Mesh mesh = shuffle(buildSphere(), new Random(42));
+        final MeshProcessor.Statistics before = MeshProcessor.analyze(mesh);
+        final Mesh optimized = MeshProcessor.optimize(mesh);
+        final MeshProcessor.Statistics after = MeshProcessor.analyze(optimized);
+        logger.info(String.format("sphere: %d triangles, %d to %d vertices%n  before: %s%n  after:  %s",
+                mesh.getIndexCount() / 3, mesh.getVertexCount(), optimized.getVertexCount(), before, after));
+
+        boolean passed = after.acmr < before.acmr;
+        passed &= reportCodecs(optimized);
+
+        mesh.free();
+        optimized.free();
+        if (!passed) {
+            logger.severe("Mesh optimization did not pay off");
+            exit(1);
+        }
+    }
+
+    private static boolean reportCodecs(Mesh mesh) {
+        final int vertexCount = mesh.getVertexCount();
+        final VertexFormat format = VertexFormat.COMPACT_POSITION_COLOR_UV;
+        final ByteBuffer quantized = format.pack(mesh.vertices);
+
+        final ByteBuffer encodedFloats = MeshProcessor.encodeVertices(mesh.vertices, mesh.vertexSize);
+        final ByteBuffer encodedQuantized = MeshProcessor.encodeVertices(quantized, format.getStride());
+        final ByteBuffer encodedIndices = MeshProcessor.encodeIndices(mesh);
+        logger.info(String.format("vertices: %d bytes, encoded %d; quantized %d bytes, encoded %d; indices: %d bytes, encoded %d",
+                mesh.vertices.remaining(), encodedFloats.remaining(), quantized.remaining(), encodedQuantized.remaining(),
+                mesh.getIndexCount() * Integer.BYTES, encodedIndices.remaining()));
+
+        // Both codecs are lossless, apart from the index codec rotating the corners of a triangle
+        final ByteBuffer decodedVertices = MeshProcessor.decodeVertices(encodedFloats, vertexCount, mesh.vertexSize);
+        final IntBuffer decodedIndices = MeshProcessor.decodeIndices(encodedIndices, mesh.getIndexCount());
+        final boolean passed = decodedVertices != null && decodedIndices != null
+                && decodedVertices.equals(mesh.vertices) && MeshProcessor.sameTriangles(decodedIndices, mesh.indices);
+        if (!passed) {
+            logger.severe("Decoded mesh differs from the encoded one");
+        }
+
+        if (decodedVertices != null) {
+            memFree(decodedVertices);
+        }
+        if (decodedIndices != null) {
+            memFree(decodedIndices);
+        }
+        memFree(encodedFloats);
+        memFree(encodedQuantized);
+        memFree(encodedIndices);
+        memFree(quantized);
+        return passed;
+    }
+
+    // Positions, colors and texture coordinates like the examples, the seam column is duplicated for the UVs
+    private static Mesh buildSphere() {
+        final VertexBuilder builder = new VertexBuilder((RINGS + 1) * (SEGMENTS + 1) * 8, RINGS * SEGMENTS * 6);
+        for (int ring = 0; ring <= RINGS; ring++) {
+            final double theta = Math.PI * ring / RINGS;
+            for (int segment = 0; segment <= SEGMENTS; segment++) {
+                final double phi = 2.0 * Math.PI * segment / SEGMENTS;
+                final float x = (float) (Math.sin(theta) * Math.cos(phi));
+                final float y = (float) Math.cos(theta);
+                final float z = (float) (Math.sin(theta) * Math.sin(phi));
+                builder.position(x * 0.5f, y * 0.5f, z * 0.5f)
+                        .color(x * 0.5f + 0.5f, y * 0.5f + 0.5f, z * 0.5f + 0.5f)
+                        .uv((float) segment / SEGMENTS, (float) ring / RINGS);
+            }
+        }
+        for (int ring = 0; ring < RINGS; ring++) {
+            for (int segment = 0; segment < SEGMENTS; segment++) {
+                final int first = ring * (SEGMENTS + 1) + segment;
+                final int below = first + SEGMENTS + 1;
+                builder.triangle(first, below, first + 1)
+                        .triangle(first + 1, below, below + 1);
+            }
+        }
+
+        final Mesh mesh = Mesh.copyOf(builder, 8);
+        builder.close();
+        return mesh;
+    }
+
+    // Shuffles the triangle order and the vertex order, rewriting the indices to match
+    private static Mesh shuffle(Mesh mesh, Random random) {
+        final int vertexCount = mesh.getVertexCount();
+        final int triangleCount = mesh.getIndexCount() / 3;
+
+        final int[] vertexOrder = permutation(vertexCount, random);
+        final int[] newIndex = new int[vertexCount];
+        final byte[] vertex = new byte[mesh.vertexSize];
+        final ByteBuffer vertices = mesh.vertices.duplicate();
+        final ByteBuffer shuffledVertices = memAlloc(mesh.vertices.remaining());
+        for (int i = 0; i < vertexCount; i++) {
+            vertices.position(vertexOrder[i] * mesh.vertexSize);
+            vertices.get(vertex);
+            shuffledVertices.put(vertex);
+            newIndex[vertexOrder[i]] = i;
+        }
+        shuffledVertices.flip();
+
+        final int[] triangleOrder = permutation(triangleCount, random);
+        final IntBuffer shuffledIndices = memAllocInt(mesh.getIndexCount());
+        for (int triangle : triangleOrder) {
+            for (int corner = 0; corner < 3; corner++) {
+                shuffledIndices.put(newIndex[mesh.indices.get(triangle * 3 + corner)]);
+            }
+        }
+        shuffledIndices.flip();
+
+        mesh.free();
+        return new Mesh(shuffledVertices, mesh.vertexSize, shuffledIndices);
+    }
+
+    private static int[] permutation(int size, Random random) {
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+}
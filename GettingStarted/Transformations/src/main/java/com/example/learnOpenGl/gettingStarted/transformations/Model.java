@@ -0,0 +1,148 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.joml.Matrix4f;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memGetFloat;
+import static org.lwjgl.system.MemoryUtil.memPutFloat;
+
+// An imported model on the GPU, one vertex array per mesh with the vertices in the compact vertex format
+// Half floats lose whole units above 2048, so positions are stored relative to the bounding box and scaled
+// into [-1, 1]. The model matrix takes them back to the units of the file
+public class Model {
+    private final int[] vaos;
+    private final int[] vbos;
+    private final int[] ebos;
+    private final int[] indexCounts;
+    private final float radius;
+    private final Matrix4f modelMatrix = new Matrix4f();
+
+    // Normalizes the positions of the meshes in place
+    private Model(Mesh[] meshes) {
+        vaos = new int[meshes.length];
+        vbos = new int[meshes.length];
+        ebos = new int[meshes.length];
+        indexCounts = new int[meshes.length];
+        glGenVertexArrays(vaos);
+        glGenBuffers(vbos);
+        glGenBuffers(ebos);
+
+        final float[] bounds = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        float largest = 0.0f;
+        for (Mesh mesh : meshes) {
+            largest = Math.max(largest, radius(mesh));
+            extendBounds(mesh, bounds);
+        }
+        radius = largest;
+
+        final float centerX = (bounds[0] + bounds[3]) * 0.5f;
+        final float centerY = (bounds[1] + bounds[4]) * 0.5f;
+        final float centerZ = (bounds[2] + bounds[5]) * 0.5f;
+        final float extent = Math.max(bounds[3] - bounds[0], Math.max(bounds[4] - bounds[1], bounds[5] - bounds[2])) * 0.5f;
+        final float scale = extent > 0.0f ? extent : 1.0f;
+        modelMatrix.translation(centerX, centerY, centerZ).scale(scale);
+
+        for (int i = 0; i < meshes.length; i++) {
+            normalize(meshes[i], centerX, centerY, centerZ, 1.0f / scale);
+            indexCounts[i] = meshes[i].getIndexCount();
+
+            GlStateTracker.current().bindVertexArray(vaos[i]);
+
+            glBindBuffer(GL_ARRAY_BUFFER, vbos[i]);
+            final ByteBuffer packed = VertexFormat.COMPACT_POSITION_COLOR_UV.pack(meshes[i].vertices);
+            glBufferData(GL_ARRAY_BUFFER, packed, GL_STATIC_DRAW);
+            memFree(packed);
+            VertexFormat.COMPACT_POSITION_COLOR_UV.setUpAttributes();
+
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebos[i]);
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, meshes[i].indices, GL_STATIC_DRAW);
+        }
+
+        // Reset the bind
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        GlStateTracker.current().bindVertexArray(0);
+    }
+
+    // Goes through the mesh cache configured by its system property, returns null when the model cannot be imported
+    static Model load(Path file) {
+        final Mesh[] meshes = ModelImporter.load(file, MeshCache.fromSystemProperty());
+        if (meshes == null) {
+            return null;
+        }
+
+        final Model model = new Model(meshes);
+        for (Mesh mesh : meshes) {
+            mesh.free();
+        }
+        return model;
+    }
+
+    // Distance of the farthest vertex from the origin, to scale the model into view
+    float getRadius() {
+        return radius;
+    }
+
+    // Maps the stored positions back to model units, multiply it into the transform before drawing
+    Matrix4f getModelMatrix() {
+        return modelMatrix;
+    }
+
+    void draw() {
+        for (int i = 0; i < vaos.length; i++) {
+            GlStateTracker.current().bindVertexArray(vaos[i]);
+            glDrawElements(GL_TRIANGLES, indexCounts[i], GL_UNSIGNED_INT, 0);
+        }
+    }
+
+    void delete() {
+        for (int vao : vaos) {
+            GlStateTracker.current().vertexArrayDeleted(vao);
+        }
+        glDeleteVertexArrays(vaos);
+        glDeleteBuffers(vbos);
+        glDeleteBuffers(ebos);
+    }
+
+    private static float radius(Mesh mesh) {
+        float largest = 0.0f;
+        long vertex = memAddress(mesh.vertices);
+        for (int i = 0; i < mesh.getVertexCount(); i++) {
+            final float x = memGetFloat(vertex);
+            final float y = memGetFloat(vertex + 4);
+            final float z = memGetFloat(vertex + 8);
+            largest = Math.max(largest, x * x + y * y + z * z);
+            vertex += mesh.vertexSize;
+        }
+        return (float) Math.sqrt(largest);
+    }
+
+    // Grows the minimum x, y, z and maximum x, y, z in bounds by the positions of the mesh
+    private static void extendBounds(Mesh mesh, float[] bounds) {
+        long vertex = memAddress(mesh.vertices);
+        for (int i = 0; i < mesh.getVertexCount(); i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                final float value = memGetFloat(vertex + axis * Float.BYTES);
+                bounds[axis] = Math.min(bounds[axis], value);
+                bounds[axis + 3] = Math.max(bounds[axis + 3], value);
+            }
+            vertex += mesh.vertexSize;
+        }
+    }
+
+    private static void normalize(Mesh mesh, float centerX, float centerY, float centerZ, float inverseScale) {
+        long vertex = memAddress(mesh.vertices);
+        for (int i = 0; i < mesh.getVertexCount(); i++) {
+            memPutFloat(vertex, (memGetFloat(vertex) - centerX) * inverseScale);
+            memPutFloat(vertex + 4, (memGetFloat(vertex + 4) - centerY) * inverseScale);
+            memPutFloat(vertex + 8, (memGetFloat(vertex + 8) - centerZ) * inverseScale);
+            vertex += mesh.vertexSize;
+        }
+    }
+}
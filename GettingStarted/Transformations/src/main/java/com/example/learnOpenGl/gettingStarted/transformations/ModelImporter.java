@@ -0,0 +1,133 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.assimp.AIColor4D;
+import org.lwjgl.assimp.AIFace;
+import org.lwjgl.assimp.AIMesh;
+import org.lwjgl.assimp.AIScene;
+import org.lwjgl.assimp.AIVector3D;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.lwjgl.assimp.Assimp.*;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memAllocInt;
+import static org.lwjgl.system.MemoryUtil.memGetAddress;
+import static org.lwjgl.system.MemoryUtil.memGetFloat;
+import static org.lwjgl.system.MemoryUtil.memGetInt;
+import static org.lwjgl.system.MemoryUtil.memPutFloat;
+
+// Imports OBJ, glTF, FBX and whatever else Assimp reads into meshes in the layout of the examples:
+// position, color and texture coordinates, 8 floats per vertex. Node transforms are baked into the vertices,
+// missing colors are white and missing texture coordinates 0. Every mesh goes through MeshProcessor
+public class ModelImporter {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int VERTEX_FLOATS = 8;
+
+    // Sorting by primitive type splits points and lines off into meshes of their own, which are skipped
+    // Triangle meshes may carry the n-gon encoding flag on top, so the type is tested bit by bit
+    private static final int FLAGS = aiProcess_Triangulate | aiProcess_JoinIdenticalVertices
+            | aiProcess_PreTransformVertices | aiProcess_SortByPType;
+
+    // Loads the meshes from the cache when possible, otherwise imports them and fills the cache
+    // The cache may be null to always import, returns null when the model cannot be imported
+    static Mesh[] load(Path model, MeshCache cache) {
+        long key = 0;
+        if (cache != null) {
+            try {
+                key = MeshCache.key(model);
+                final Mesh[] cached = cache.load(key);
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to hash model: " + model + ": " + e.getMessage());
+                cache = null;
+            }
+        }
+
+        final Mesh[] meshes = importModel(model);
+        if (meshes != null && cache != null) {
+            cache.store(key, meshes);
+        }
+        return meshes;
+    }
+
+    static Mesh[] importModel(Path model) {
+        final long start = System.nanoTime();
+        final AIScene scene = aiImportFile(model.toString(), FLAGS);
+        if (scene == null) {
+            logger.severe("Failed to import model: " + model + ": " + aiGetErrorString());
+            return null;
+        }
+
+        final List<Mesh> meshes = new ArrayList<>();
+        final PointerBuffer sceneMeshes = scene.mMeshes();
+        int triangles = 0;
+        for (int i = 0; i < scene.mNumMeshes(); i++) {
+            final AIMesh mesh = AIMesh.create(sceneMeshes.get(i));
+            if ((mesh.mPrimitiveTypes() & aiPrimitiveType_TRIANGLE) == 0 || mesh.mNumFaces() == 0) {
+                continue;
+            }
+
+            final Mesh imported = convert(mesh);
+            meshes.add(MeshProcessor.optimize(imported));
+            imported.free();
+            triangles += mesh.mNumFaces();
+        }
+        aiReleaseImport(scene);
+
+        logger.info(String.format("Imported %s: %d meshes, %d triangles in %.1f ms",
+                model, meshes.size(), triangles, (System.nanoTime() - start) / 1_000_000.0));
+        return meshes.toArray(new Mesh[0]);
+    }
+
+    // Reads the Assimp arrays by address, going through the struct wrappers would create an object per vertex
+    private static Mesh convert(AIMesh mesh) {
+        final int vertexCount = mesh.mNumVertices();
+        final long positions = mesh.mVertices().address();
+        final AIColor4D.Buffer colorBuffer = mesh.mColors(0);
+        final AIVector3D.Buffer uvBuffer = mesh.mTextureCoords(0);
+        final long colors = colorBuffer != null ? colorBuffer.address() : 0;
+        final long uvs = uvBuffer != null ? uvBuffer.address() : 0;
+
+        final ByteBuffer vertices = memAlloc(vertexCount * VERTEX_FLOATS * Float.BYTES);
+        long to = memAddress(vertices);
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            final long position = positions + (long) vertex * AIVector3D.SIZEOF;
+            memPutFloat(to, memGetFloat(position + AIVector3D.X));
+            memPutFloat(to + 4, memGetFloat(position + AIVector3D.Y));
+            memPutFloat(to + 8, memGetFloat(position + AIVector3D.Z));
+
+            final long color = colors + (long) vertex * AIColor4D.SIZEOF;
+            memPutFloat(to + 12, colors != 0 ? memGetFloat(color + AIColor4D.R) : 1.0f);
+            memPutFloat(to + 16, colors != 0 ? memGetFloat(color + AIColor4D.G) : 1.0f);
+            memPutFloat(to + 20, colors != 0 ? memGetFloat(color + AIColor4D.B) : 1.0f);
+
+            final long uv = uvs + (long) vertex * AIVector3D.SIZEOF;
+            memPutFloat(to + 24, uvs != 0 ? memGetFloat(uv + AIVector3D.X) : 0.0f);
+            memPutFloat(to + 28, uvs != 0 ? memGetFloat(uv + AIVector3D.Y) : 0.0f);
+            to += VERTEX_FLOATS * Float.BYTES;
+        }
+
+        // Triangulated, so every face has exactly 3 indices
+        final int faceCount = mesh.mNumFaces();
+        final long faces = mesh.mFaces().address();
+        final IntBuffer indices = memAllocInt(faceCount * 3);
+        for (int face = 0; face < faceCount; face++) {
+            final long faceIndices = memGetAddress(faces + (long) face * AIFace.SIZEOF + AIFace.MINDICES);
+            indices.put(memGetInt(faceIndices)).put(memGetInt(faceIndices + 4)).put(memGetInt(faceIndices + 8));
+        }
+        indices.flip();
+
+        return new Mesh(vertices, VERTEX_FLOATS * Float.BYTES, indices);
+    }
+}
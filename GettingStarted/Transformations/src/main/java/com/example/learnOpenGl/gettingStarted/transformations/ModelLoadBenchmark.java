@@ -0,0 +1,114 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static java.lang.System.exit;
+
+// Compares importing a model through Assimp (including optimizing and filling the cache) against loading it from
+// a warm MeshCache. Pass the path of a model to measure it, otherwise a torus of a few megabytes is written as OBJ
+// Needs no GL context, the cache sits in front of the upload. Exits with 1 when the cache does not give back the model
+public class ModelLoadBenchmark {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int ITERATIONS = 20;
+
+    // Rings and segments of the generated torus
+    private static final int RINGS = 512;
+    private static final int SEGMENTS = 256;
+
+    public static void main(String[] args) throws IOException {
+        final Path directory = Files.createTempDirectory("meshCache");
+        final Path model = args.length > 0 ? Paths.get(args[0]) : writeTorus(directory.resolve("torus.obj"));
+        final MeshCache cache = new MeshCache(directory);
+        final long key = MeshCache.key(model);
+
+        // The first load misses and imports, every later one is a hit
+        long start = System.nanoTime();
+        final Mesh[] imported = ModelImporter.load(model, cache);
+        final long cold = System.nanoTime() - start;
+        if (imported == null || !Files.isRegularFile(cache.file(key))) {
+            exit(1);
+        }
+
+        long warmTotal = 0;
+        boolean identical = true;
+        for (int i = 0; i < ITERATIONS; i++) {
+            start = System.nanoTime();
+            final Mesh[] cached = ModelImporter.load(model, cache);
+            warmTotal += System.nanoTime() - start;
+
+            identical &= cached != null && sameMeshes(imported, cached);
+            if (cached != null) {
+                for (Mesh mesh : cached) {
+                    mesh.free();
+                }
+            }
+        }
+
+        int triangles = 0;
+        for (Mesh mesh : imported) {
+            triangles += mesh.getIndexCount() / 3;
+            mesh.free();
+        }
+        logger.info(String.format("%s (%d triangles, %d bytes): Assimp import %.1f ms, mesh cache %.3f ms (average of %d), %d bytes on disk",
+                model.getFileName(), triangles, Files.size(model), cold / 1_000_000.0,
+                warmTotal / (ITERATIONS * 1_000_000.0), ITERATIONS, Files.size(cache.file(key))));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+
+        if (!identical) {
+            logger.severe("Cached meshes differ from the imported ones");
+            exit(1);
+        }
+    }
+
+    private static boolean sameMeshes(Mesh[] imported, Mesh[] cached) {
+        if (imported.length != cached.length) {
+            return false;
+        }
+        for (int i = 0; i < imported.length; i++) {
+            if (!imported[i].vertices.equals(cached[i].vertices) || !MeshProcessor.sameTriangles(cached[i].indices, imported[i].indices)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Path writeTorus(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int ring = 0; ring <= RINGS; ring++) {
+                final double theta = 2.0 * Math.PI * ring / RINGS;
+                for (int segment = 0; segment <= SEGMENTS; segment++) {
+                    final double phi = 2.0 * Math.PI * segment / SEGMENTS;
+                    final double distance = 1.0 + 0.3 * Math.cos(phi);
+                    writer.write(String.format(Locale.ROOT, "v %.6f %.6f %.6f%n",
+                            distance * Math.cos(theta), 0.3 * Math.sin(phi), distance * Math.sin(theta)));
+                    writer.write(String.format(Locale.ROOT, "vt %.6f %.6f%n", (double) ring / RINGS, (double) segment / SEGMENTS));
+                }
+            }
+            for (int ring = 0; ring < RINGS; ring++) {
+                for (int segment = 0; segment < SEGMENTS; segment++) {
+                    // OBJ indices start at 1
+                    final int first = ring * (SEGMENTS + 1) + segment + 1;
+                    final int next = first + SEGMENTS + 1;
+                    writer.write(String.format("f %d/%d %d/%d %d/%d %d/%d%n",
+                            first, first, first + 1, first + 1, next + 1, next + 1, next, next));
+                }
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.joml.Matrix4f;
+import org.lwjgl.glfw.GLFWFramebufferSizeCallbackI;
+import org.lwjgl.opengl.GL;
+
+import java.net.URL;
+import java.nio.file.Paths;
+
+import static java.lang.System.exit;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+// Spins a model imported through Assimp, start with the path of an OBJ, glTF, FBX, ... file as argument
+// Set -DlearnOpenGl.meshCacheDir=<dir> to import it only once and load the cached meshes from then on
+public class ModelViewer {
+
+    // Window size
+    final static int width = 800;
+    final static int height = 600;
+
+    // Vertex and fragment shader
+    private static final URL VERTEX_SHADER_PATH = ModelViewer.class.getClassLoader().getResource("shader.vs");
+    private static final URL FRAGMENT_SHADER_PATH = ModelViewer.class.getClassLoader().getResource("shader.fs");
+
+    // Texture
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
+
+    // Callbacks
+    private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
+
+    // Process user input
+    private static void processInput(long window) {
+        if (glfwGetKey(window, GLFW_KEY_ESCAPE) == GLFW_PRESS) {
+            glfwSetWindowShouldClose(window, true);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: ModelViewer <model file>");
+            exit(-1);
+        }
+
+        // Initialize glfw window
+        glfwInit();
+
+        // Configure glfw using glfwWindowHint(option, value)
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+
+        // Instantiate the GLFW window
+        final long window = glfwCreateWindow(width, height, "LearnOpenGl", NULL, NULL);
+        if (window == NULL) {
+            System.out.println("Failed to create GLFW window");
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Make the window current. This is needed to load the OpenGL functions
+        glfwMakeContextCurrent(window);
+
+        // Load OpenGL functions
+        try {
+            GL.createCapabilities();
+        } catch (IllegalStateException e) {
+            System.out.println("Failed to initialize OpenGL");
+            e.printStackTrace();
+            System.out.println(e.getCause().getMessage());
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Initialise the framebuffer callback function
+        glfwSetFramebufferSizeCallback(window, FRAMEBUFFER_SIZE_CALLBACK);
+
+        // Import the model, or load it from the mesh cache
+        final Model model = Model.load(Paths.get(args[0]));
+        if (model == null) {
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Create a shader program
+        CustomShader shader = new CustomShader(VERTEX_SHADER_PATH, FRAGMENT_SHADER_PATH);
+        shader.use();
+        shader.setInt("texture1", 0);
+        shader.setInt("texture2", 1);
+        final int transformHandle = shader.getUniformHandle("transform");
+
+        final TextureLoader textureLoader = new TextureLoader(2, 4, 8 * 1024 * 1024);
+        final TextureManager textureManager = TextureManager.fromSystemProperty(textureLoader);
+
+        glEnable(GL_DEPTH_TEST);
+
+        // Render loop
+        while(!glfwWindowShouldClose(window)) {
+            // Input
+            processInput(window);
+
+            // Upload whatever finished decoding
+            textureLoader.processUploads();
+
+            // Render
+            glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
+            glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+
+            textureManager.bind(0, CONTAINER_TEXTURE, true);
+            textureManager.bind(1, AWESOMEFACE_TEXTURE, true);
+
+            // Use the shader program
+            shader.use();
+
+            // Fit the model into view and spin it around the vertical axis, without a projection z is
+            // flipped so the side facing the viewer is the nearest in normalized device coordinates
+            final float scale = model.getRadius() > 0.0f ? 0.8f / model.getRadius() : 1.0f;
+            shader.setFloatMatrix4f(transformHandle, new Matrix4f()
+                    .scale(scale, scale, -scale)
+                    .rotateY((float) glfwGetTime())
+                    .mul(model.getModelMatrix()));
+
+            model.draw();
+
+            // Check and call events
+            // Swap the buffers
+            glfwSwapBuffers(window);
+            glfwPollEvents();
+            textureManager.endFrame();
+        }
+
+        // Deallocate all resources when no longer necessary
+        model.delete();
+        textureManager.delete();
+        textureLoader.close();
+        shader.delete();
+
+        glfwTerminate();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL21.GL_PIXEL_UNPACK_BUFFER;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL44.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL44.glBufferStorage;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memCopy;
+
+// Streams texture data through a ring of pixel unpack buffer slots, so glTexSubImage2D copies from GPU visible
+// memory instead of making the driver copy the client buffer before returning. Each slot is guarded by a fence
+// and only rewritten once the GPU has consumed it. With buffer storage the ring is mapped once and stays mapped,
+// otherwise each slot is mapped unsynchronized for the copy, which is safe because the fence was already waited on.
+public class PboUploader {
+    private final int buffer;
+    private final int slots;
+    private final long slotSize;
+    private final long[] fences;
+    private final boolean persistent;
+    private long mapped = 0;
+    private int nextSlot = 0;
+
+    PboUploader(int slots, long slotSize) {
+        this.slots = slots;
+        this.slotSize = slotSize;
+        this.fences = new long[slots];
+
+        GLCapabilities capabilities = GL.getCapabilities();
+        persistent = capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+
+        buffer = glGenBuffers();
+        glBindBuffer(GL_PIXEL_UNPACK_BUFFER, buffer);
+        if (persistent) {
+            final int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+            glBufferStorage(GL_PIXEL_UNPACK_BUFFER, slots * slotSize, flags);
+            mapped = memAddress(glMapBufferRange(GL_PIXEL_UNPACK_BUFFER, 0, slots * slotSize, flags));
+        } else {
+            glBufferData(GL_PIXEL_UNPACK_BUFFER, slots * slotSize, GL_STREAM_DRAW);
+        }
+        glBindBuffer(GL_PIXEL_UNPACK_BUFFER, 0);
+    }
+
+    boolean isPersistent() {
+        return persistent;
+    }
+
+    // Uploads tightly packed pixels into a level of a 2D texture that already has storage of at least this size
+    // Images larger than a slot are sent as strips of rows, rows that do not fit a slot at all go direct
+    void upload(int texture, int level, int width, int height, int format, ByteBuffer pixels) {
+        final int rowSize = pixels.remaining() / height;
+        final int rowsPerStrip = (int) Math.min(height, slotSize / rowSize);
+
+        glBindTexture(GL_TEXTURE_2D, texture);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+
+        if (rowsPerStrip == 0) {
+            glTexSubImage2D(GL_TEXTURE_2D, level, 0, 0, width, height, format, GL_UNSIGNED_BYTE, pixels);
+        } else {
+            glBindBuffer(GL_PIXEL_UNPACK_BUFFER, buffer);
+            for (int row = 0; row < height; row += rowsPerStrip) {
+                final int rows = Math.min(rowsPerStrip, height - row);
+                final long offset = acquireSlot() * slotSize;
+
+                copy(memAddress(pixels) + (long) row * rowSize, offset, (long) rows * rowSize);
+                glTexSubImage2D(GL_TEXTURE_2D, level, 0, row, width, rows, format, GL_UNSIGNED_BYTE, offset);
+                releaseSlot();
+            }
+            glBindBuffer(GL_PIXEL_UNPACK_BUFFER, 0);
+        }
+
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    // Waits until every upload has been consumed, e.g. before timing or tearing down
+    void finish() {
+        for (int slot = 0; slot < slots; slot++) {
+            waitForFence(slot);
+        }
+    }
+
+    void delete() {
+        finish();
+        if (persistent) {
+            glBindBuffer(GL_PIXEL_UNPACK_BUFFER, buffer);
+            glUnmapBuffer(GL_PIXEL_UNPACK_BUFFER);
+            glBindBuffer(GL_PIXEL_UNPACK_BUFFER, 0);
+        }
+        glDeleteBuffers(buffer);
+    }
+
+    private int acquireSlot() {
+        waitForFence(nextSlot);
+        return nextSlot;
+    }
+
+    // The GPU reads the slot once the commands issued so far have executed
+    private void releaseSlot() {
+        fences[nextSlot] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        nextSlot = (nextSlot + 1) % slots;
+    }
+
+    private void copy(long source, long offset, long size) {
+        if (persistent) {
+            memCopy(source, mapped + offset, size);
+        } else {
+            ByteBuffer slot = glMapBufferRange(GL_PIXEL_UNPACK_BUFFER, offset, size,
+                    GL_MAP_WRITE_BIT | GL_MAP_INVALIDATE_RANGE_BIT | GL_MAP_UNSYNCHRONIZED_BIT);
+            memCopy(source, memAddress(slot), size);
+            glUnmapBuffer(GL_PIXEL_UNPACK_BUFFER);
+        }
+    }
+
+    private void waitForFence(int slot) {
+        if (fences[slot] == 0) {
+            return;
+        }
+
+        // Flush on the first wait so the fence is guaranteed to signal eventually
+        int flags = GL_SYNC_FLUSH_COMMANDS_BIT;
+        int status;
+        do {
+            status = glClientWaitSync(fences[slot], flags, 1_000_000L);
+            flags = 0;
+        } while (status == GL_TIMEOUT_EXPIRED);
+
+        glDeleteSync(fences[slot]);
+        fences[slot] = 0;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.opengl.ARBParallelShaderCompile.glMaxShaderCompilerThreadsARB;
+import static org.lwjgl.opengl.GL11.GL_TRUE;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.KHRParallelShaderCompile.GL_COMPLETION_STATUS_KHR;
+import static org.lwjgl.opengl.KHRParallelShaderCompile.glMaxShaderCompilerThreadsKHR;
+
+// Compiles and links many programs at once without querying their status in between,
+// so that drivers with KHR_parallel_shader_compile can overlap the work on their own threads
+public class ShaderBatch {
+    // Lets the driver pick its own number of compiler threads
+    private static final int MAX_COMPILER_THREADS = 0xFFFFFFFF;
+
+    private final List<PendingProgram> submitted = new ArrayList<>();
+    private final boolean parallelCompile;
+    private boolean started = false;
+
+    ShaderBatch() {
+        GLCapabilities capabilities = GL.getCapabilities();
+        parallelCompile = capabilities.GL_KHR_parallel_shader_compile || capabilities.GL_ARB_parallel_shader_compile;
+
+        if (capabilities.GL_KHR_parallel_shader_compile) {
+            glMaxShaderCompilerThreadsKHR(MAX_COMPILER_THREADS);
+        } else if (capabilities.GL_ARB_parallel_shader_compile) {
+            glMaxShaderCompilerThreadsARB(MAX_COMPILER_THREADS);
+        }
+    }
+
+    PendingProgram submit(URL vertexPath, URL fragmentPath) {
+        return submit(vertexPath, fragmentPath, Collections.emptyMap());
+    }
+
+    // Reading and preprocessing the sources happens right away, the GL work is deferred until start()
+    PendingProgram submit(URL vertexPath, URL fragmentPath, Map<String, String> defines) {
+        if (started) {
+            throw new IllegalStateException("Cannot submit to a batch that has already been started");
+        }
+
+        return submit(ShaderPreprocessor.process(vertexPath, defines), ShaderPreprocessor.process(fragmentPath, defines));
+    }
+
+    // For sources that were already preprocessed, e.g. on another thread
+    PendingProgram submit(ShaderSource vertexSource, ShaderSource fragmentSource) {
+        if (started) {
+            throw new IllegalStateException("Cannot submit to a batch that has already been started");
+        }
+
+        PendingProgram pending = new PendingProgram(vertexSource, fragmentSource);
+        submitted.add(pending);
+        return pending;
+    }
+
+    // Kicks off every compile and link without waiting for any of them
+    void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+
+        final ProgramBinaryCache cache = ProgramBinaryCache.fromSystemProperty();
+        for (PendingProgram pending : submitted) {
+            pending.start(cache);
+        }
+    }
+
+    boolean isDone() {
+        for (PendingProgram pending : submitted) {
+            if (!pending.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Waits for every program in the batch, in submission order
+    List<CustomShader> getAll() {
+        start();
+
+        List<CustomShader> shaders = new ArrayList<>(submitted.size());
+        for (PendingProgram pending : submitted) {
+            shaders.add(pending.get());
+        }
+        return shaders;
+    }
+
+    public class PendingProgram {
+        private final ShaderSource vertexSource;
+        private final ShaderSource fragmentSource;
+
+        private ProgramBinaryCache cache;
+        private String cacheKey;
+        private int vertexShader = 0;
+        private int fragmentShader = 0;
+        private int program = 0;
+        private boolean finished = false;
+        private boolean linked = false;
+        private CustomShader shader = null;
+
+        private PendingProgram(ShaderSource vertexSource, ShaderSource fragmentSource) {
+            this.vertexSource = vertexSource;
+            this.fragmentSource = fragmentSource;
+        }
+
+        private void start(ProgramBinaryCache cache) {
+            this.cache = cache;
+            if (cache != null) {
+                cacheKey = cache.key(vertexSource, fragmentSource);
+                program = cache.load(cacheKey);
+                if (program != 0) {
+                    return;
+                }
+            }
+
+            // Linking straight after compiling is fine, the driver orders the work itself
+            vertexShader = CustomShader.createShader(GL_VERTEX_SHADER, vertexSource);
+            fragmentShader = CustomShader.createShader(GL_FRAGMENT_SHADER, fragmentSource);
+            program = CustomShader.createProgram(vertexShader, fragmentShader, cache);
+        }
+
+        // Never blocks; without the extension any status query would stall, so report done and let get() wait
+        public boolean isDone() {
+            if (!started) {
+                return false;
+            }
+            if (finished || !parallelCompile || vertexShader == 0) {
+                return true;
+            }
+            return glGetProgrami(program, GL_COMPLETION_STATUS_KHR) == GL_TRUE;
+        }
+
+        // Blocks until the program is linked and returns whether compiling and linking succeeded
+        public boolean succeeded() {
+            finish();
+            return linked;
+        }
+
+        // Blocks until the program is linked and returns it, failures are reported but the program is still returned
+        public int getProgram() {
+            finish();
+            return program;
+        }
+
+        // Blocks until the program is linked, reports any errors and wraps it in a CustomShader
+        public CustomShader get() {
+            if (shader == null) {
+                shader = new CustomShader(getProgram());
+            }
+            return shader;
+        }
+
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            if (!started) {
+                throw new IllegalStateException("The batch has not been started");
+            }
+
+            if (vertexShader == 0) {
+                // Loaded from the program binary cache, which only hands out linked programs
+                linked = true;
+            } else {
+                final boolean vertexCompiled = CustomShader.checkCompileStatus(vertexShader, vertexSource);
+                final boolean fragmentCompiled = CustomShader.checkCompileStatus(fragmentShader, fragmentSource);
+                linked = CustomShader.checkLinkStatus(program) && vertexCompiled && fragmentCompiled;
+
+                vertexShader = 0;
+                fragmentShader = 0;
+
+                if (linked && cache != null) {
+                    cache.store(cacheKey, program);
+                }
+            }
+            finished = true;
+        }
+    }
+}
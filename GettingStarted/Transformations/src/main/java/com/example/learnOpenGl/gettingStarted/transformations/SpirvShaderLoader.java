@@ -0,0 +1,183 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.lwjgl.opengl.ARBGLSPIRV.glSpecializeShaderARB;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL41.glShaderBinary;
+import static org.lwjgl.opengl.GL46.GL_SHADER_BINARY_FORMAT_SPIR_V;
+import static org.lwjgl.opengl.GL46.glSpecializeShader;
+
+// Loads the SPIR-V modules written by SpirvCompiler next to the GLSL sources, skipping the driver's GLSL front end
+// Modules whose recorded source hash no longer matches the GLSL next to them are ignored
+// Uniform names are optional in SPIR-V, so their locations come from the reflection file instead of the driver
+public class SpirvShaderLoader {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    static final String SPIRV_EXTENSION = ".spv";
+    static final String REFLECTION_EXTENSION = ".spv.json";
+
+    private static final Pattern SECTION = Pattern.compile("^\\s*\"(\\w+)\": \\[");
+    private static final Pattern SOURCE_HASH = Pattern.compile("^\\s*\"sourceHash\": \"([0-9a-f]{16})\"");
+    private static final Pattern UNIFORM = Pattern.compile("\\{\"name\": \"([^\"]+)\", \"location\": (-?\\d+)}");
+
+    static boolean isSupported() {
+        GLCapabilities capabilities = GL.getCapabilities();
+        return capabilities.OpenGL46 || capabilities.GL_ARB_gl_spirv;
+    }
+
+    // Returns null when there are no precompiled modules or the driver cannot use them, callers fall back to GLSL
+    static SpirvProgram load(URL vertexPath, URL fragmentPath) {
+        if (!isSupported()) {
+            return null;
+        }
+
+        try {
+            final URL vertexModule = sibling(vertexPath, SPIRV_EXTENSION);
+            final URL fragmentModule = sibling(fragmentPath, SPIRV_EXTENSION);
+            final URL vertexReflection = sibling(vertexPath, REFLECTION_EXTENSION);
+            final URL fragmentReflection = sibling(fragmentPath, REFLECTION_EXTENSION);
+            if (!exists(vertexModule) || !exists(fragmentModule) || !exists(vertexReflection) || !exists(fragmentReflection)) {
+                return null;
+            }
+            if (!isUpToDate(vertexPath, vertexReflection) || !isUpToDate(fragmentPath, fragmentReflection)) {
+                return null;
+            }
+
+            final int vertexShader = createShader(GL_VERTEX_SHADER, readBytes(vertexModule));
+            final int fragmentShader = createShader(GL_FRAGMENT_SHADER, readBytes(fragmentModule));
+            final boolean vertexSpecialized = checkSpecializeStatus(vertexShader, vertexModule);
+            final boolean fragmentSpecialized = checkSpecializeStatus(fragmentShader, fragmentModule);
+
+            final int program = glCreateProgram();
+            glAttachShader(program, vertexShader);
+            glAttachShader(program, fragmentShader);
+            glLinkProgram(program);
+            glDeleteShader(vertexShader);
+            glDeleteShader(fragmentShader);
+
+            if (!vertexSpecialized || !fragmentSpecialized || !CustomShader.checkLinkStatus(program)) {
+                glDeleteProgram(program);
+                return null;
+            }
+
+            Map<String, Integer> uniformLocations = new HashMap<>();
+            readUniformLocations(vertexReflection, uniformLocations);
+            readUniformLocations(fragmentReflection, uniformLocations);
+            return new SpirvProgram(program, uniformLocations);
+        } catch (IOException e) {
+            logger.warning("Could not load SPIR-V for " + vertexPath + ", falling back to GLSL: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static int createShader(int shaderType, ByteBuffer module) {
+        final int shader = glCreateShader(shaderType);
+        glShaderBinary(new int[]{shader}, GL_SHADER_BINARY_FORMAT_SPIR_V, module);
+
+        // Without specialization constants the module only has to be told which entry point to use
+        if (GL.getCapabilities().OpenGL46) {
+            glSpecializeShader(shader, "main", new int[0], new int[0]);
+        } else {
+            glSpecializeShaderARB(shader, "main", new int[0], new int[0]);
+        }
+        return shader;
+    }
+
+    private static boolean checkSpecializeStatus(int shader, URL module) {
+        if (glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
+            logger.severe("Failed to specialize " + ShaderPreprocessor.fileName(module) + ": " + glGetShaderInfoLog(shader));
+            return false;
+        }
+        return true;
+    }
+
+    // A module compiled from an older version of the GLSL would silently override edits to it
+    private static boolean isUpToDate(URL source, URL reflection) throws IOException {
+        final long sourceHash = ShaderPreprocessor.process(source, Collections.emptyMap()).hash;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(reflection.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = SOURCE_HASH.matcher(line);
+                if (matcher.find()) {
+                    if (Long.parseUnsignedLong(matcher.group(1), 16) == sourceHash) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+        }
+
+        logger.info("SPIR-V for " + ShaderPreprocessor.fileName(source) + " does not match its source, falling back to GLSL");
+        return false;
+    }
+
+    // SpirvCompiler writes one entry per line, so the uniforms section can be read without a JSON parser
+    private static void readUniformLocations(URL reflection, Map<String, Integer> uniformLocations) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(reflection.openStream(), StandardCharsets.UTF_8))) {
+            String section = "";
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher sectionMatcher = SECTION.matcher(line);
+                if (sectionMatcher.find()) {
+                    section = sectionMatcher.group(1);
+                }
+
+                Matcher uniformMatcher = UNIFORM.matcher(line);
+                if (section.equals("uniforms") && uniformMatcher.find()) {
+                    uniformLocations.put(uniformMatcher.group(1), Integer.parseInt(uniformMatcher.group(2)));
+                }
+            }
+        }
+    }
+
+    private static URL sibling(URL path, String extension) throws IOException {
+        return new URL(path, ShaderPreprocessor.fileName(path) + extension);
+    }
+
+    // Resources may be inside a jar, opening them is the one check that works for every kind of URL
+    private static boolean exists(URL path) {
+        try {
+            path.openStream().close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer readBytes(URL path) throws IOException {
+        try (InputStream stream = path.openStream()) {
+            final byte[] bytes = stream.readAllBytes();
+            ByteBuffer buffer = BufferUtils.createByteBuffer(bytes.length);
+            buffer.put(bytes).flip();
+            return buffer;
+        }
+    }
+
+    public static class SpirvProgram {
+        public final int program;
+        public final Map<String, Integer> uniformLocations;
+
+        private SpirvProgram(int program, Map<String, Integer> uniformLocations) {
+            this.program = program;
+            this.uniformLocations = uniformLocations;
+        }
+    }
+}
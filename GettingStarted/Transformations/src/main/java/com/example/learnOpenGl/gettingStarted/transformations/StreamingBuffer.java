@@ -0,0 +1,167 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL44.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL44.glBufferStorage;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memByteBuffer;
+
+// A vertex buffer for geometry that is rewritten every frame, split into one region per frame in flight
+// The CPU fills one region while the GPU still draws from the others, a fence per region makes sure a region
+// is only reused once the draws reading it have executed, so the driver never has to sync implicitly
+// With buffer storage the whole buffer is mapped once and stays mapped, otherwise the region of the frame is
+// mapped unsynchronized, which is safe because its fence was already waited on
+public class StreamingBuffer {
+    private final int target;
+    private final int buffer;
+    private final int regions;
+    private final long regionSize;
+    private final long[] fences;
+    private final boolean persistent;
+    private long mapped = 0;
+    private int region = 0;
+    private boolean writing = false;
+
+    // Statistics
+    private long frames = 0;
+    private long stalls = 0;
+    private long stalledNanos = 0;
+
+    // Three regions let the CPU run up to two frames ahead of the GPU
+    StreamingBuffer(int target, long regionSize) {
+        this(target, regionSize, 3);
+    }
+
+    StreamingBuffer(int target, long regionSize, int regions) {
+        this.target = target;
+        this.regionSize = regionSize;
+        this.regions = regions;
+        this.fences = new long[regions];
+
+        GLCapabilities capabilities = GL.getCapabilities();
+        persistent = capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+
+        buffer = glGenBuffers();
+        glBindBuffer(target, buffer);
+        if (persistent) {
+            final int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+            glBufferStorage(target, regions * regionSize, flags);
+            mapped = memAddress(glMapBufferRange(target, 0, regions * regionSize, flags));
+        } else {
+            glBufferData(target, regions * regionSize, GL_STREAM_DRAW);
+        }
+        glBindBuffer(target, 0);
+    }
+
+    int getBuffer() {
+        return buffer;
+    }
+
+    boolean isPersistent() {
+        return persistent;
+    }
+
+    long getRegionSize() {
+        return regionSize;
+    }
+
+    // Byte offset of the region of the current frame, draws add it to their offsets or divide it into a base vertex
+    long getOffset() {
+        return region * regionSize;
+    }
+
+    // Waits until the GPU is done with the region of this frame and returns it to be written, valid until commit()
+    ByteBuffer begin() {
+        waitForFence(region);
+        writing = true;
+        if (persistent) {
+            return memByteBuffer(mapped + getOffset(), (int) regionSize);
+        }
+
+        glBindBuffer(target, buffer);
+        ByteBuffer range = glMapBufferRange(target, getOffset(), regionSize,
+                GL_MAP_WRITE_BIT | GL_MAP_INVALIDATE_RANGE_BIT | GL_MAP_UNSYNCHRONIZED_BIT);
+        glBindBuffer(target, 0);
+        return range;
+    }
+
+    // Makes the written region available to draws, coherent mappings need nothing but the mapped fallback is unmapped
+    void commit() {
+        if (!writing) {
+            return;
+        }
+        writing = false;
+        if (!persistent) {
+            glBindBuffer(target, buffer);
+            glUnmapBuffer(target);
+            glBindBuffer(target, 0);
+        }
+    }
+
+    // Call after the last draw reading this frame's region, the fence signals once those draws have executed
+    void endFrame() {
+        commit();
+        fences[region] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        region = (region + 1) % regions;
+        frames++;
+    }
+
+    long getFrames() {
+        return frames;
+    }
+
+    // Frames in which the GPU had not caught up yet and the CPU had to wait on a fence
+    long getStalls() {
+        return stalls;
+    }
+
+    long getStalledNanos() {
+        return stalledNanos;
+    }
+
+    void delete() {
+        commit();
+        for (int slot = 0; slot < regions; slot++) {
+            waitForFence(slot);
+        }
+        if (persistent) {
+            glBindBuffer(target, buffer);
+            glUnmapBuffer(target);
+            glBindBuffer(target, 0);
+        }
+        glDeleteBuffers(buffer);
+    }
+
+    private void waitForFence(int slot) {
+        if (fences[slot] == 0) {
+            return;
+        }
+
+        // Polling first tells a free region apart from one the CPU has to wait for
+        int status = glClientWaitSync(fences[slot], 0, 0);
+        if (status == GL_TIMEOUT_EXPIRED) {
+            stalls++;
+            final long start = System.nanoTime();
+
+            // Flush on the first wait so the fence is guaranteed to signal eventually
+            int flags = GL_SYNC_FLUSH_COMMANDS_BIT;
+            do {
+                status = glClientWaitSync(fences[slot], flags, 1_000_000L);
+                flags = 0;
+            } while (status == GL_TIMEOUT_EXPIRED);
+
+            stalledNanos += System.nanoTime() - start;
+        }
+
+        glDeleteSync(fences[slot]);
+        fences[slot] = 0;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.joml.Matrix4f;
+import org.lwjgl.glfw.GLFWFramebufferSizeCallbackI;
+import org.lwjgl.opengl.GL;
+
+import java.net.URL;
+import java.util.logging.Logger;
+
+import static java.lang.System.exit;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.glDrawElementsBaseVertex;
+import static org.lwjgl.system.MemoryUtil.NULL;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memPutFloat;
+
+// Rebuilds thousands of spinning quads on the CPU every frame and streams them through a StreamingBuffer
+// Only the vertices change, the indices are static and every frame draws with the base vertex of its region
+public class StreamingQuads {
+
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    // Window size
+    final static int width = 800;
+    final static int height = 600;
+
+    // Quads per row and column
+    private static final int GRID_SIZE = 64;
+    private static final int QUADS = GRID_SIZE * GRID_SIZE;
+
+    // positions, colors, texture coords
+    private static final int VERTEX_FLOATS = 8;
+    private static final int VERTEX_SIZE = VERTEX_FLOATS * Float.BYTES;
+
+    // Vertex and fragment shader
+    private static final URL VERTEX_SHADER_PATH = StreamingQuads.class.getClassLoader().getResource("shader.vs");
+    private static final URL FRAGMENT_SHADER_PATH = StreamingQuads.class.getClassLoader().getResource("shader.fs");
+
+    // Texture
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
+
+    // Corners of a quad in its own -1..1 space, with their texture coordinates
+    private static final float[][] CORNERS = {
+            {1.0f, 1.0f, 1.0f, 1.0f}, // top right
+            {1.0f, -1.0f, 1.0f, 0.0f}, // bottom right
+            {-1.0f, -1.0f, 0.0f, 0.0f}, // bottom left
+            {-1.0f, 1.0f, 0.0f, 1.0f} // top left
+    };
+
+    // Callbacks
+    private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
+
+    // Process user input
+    private static void processInput(long window) {
+        if (glfwGetKey(window, GLFW_KEY_ESCAPE) == GLFW_PRESS) {
+            glfwSetWindowShouldClose(window, true);
+        }
+    }
+
+    private static void setUpVertexData(int vao, StreamingBuffer vertices, int ebo) {
+        glBindVertexArray(vao);
+
+        // The attributes point at the start of the buffer, each frame selects its region with a base vertex
+        glBindBuffer(GL_ARRAY_BUFFER, vertices.getBuffer());
+
+        // Feed the position vertices to OpenGL
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, VERTEX_SIZE, 0);
+        glEnableVertexAttribArray(0);
+
+        // Feed the color vertices to OpenGl
+        glVertexAttribPointer(1, 3, GL_FLOAT, false, VERTEX_SIZE, 3 * Float.BYTES);
+        glEnableVertexAttribArray(1);
+
+        // Feed the texture vertices to OpenGl
+        glVertexAttribPointer(2, 2, GL_FLOAT, false, VERTEX_SIZE, 6 * Float.BYTES);
+        glEnableVertexAttribArray(2);
+
+        final VertexBuilder indices = new VertexBuilder(0, QUADS * 6);
+        for (int quad = 0; quad < QUADS; quad++) {
+            final int first = quad * 4;
+            indices.triangle(first, first + 1, first + 3)
+                    .triangle(first + 1, first + 2, first + 3);
+        }
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices.getIndices(), GL_STATIC_DRAW);
+        indices.close();
+
+        // Reset the bind
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+    }
+
+    // Writes every quad straight into the mapped region, rotated by its own phase
+    private static void writeQuads(long address, float time) {
+        final float quadSize = 2.0f / GRID_SIZE;
+        for (int quad = 0; quad < QUADS; quad++) {
+            final int column = quad % GRID_SIZE;
+            final int row = quad / GRID_SIZE;
+            final float centerX = -1.0f + (column + 0.5f) * quadSize;
+            final float centerY = -1.0f + (row + 0.5f) * quadSize;
+            final float angle = time + (column + row) * 0.1f;
+            final float cos = (float) Math.cos(angle) * quadSize * 0.45f;
+            final float sin = (float) Math.sin(angle) * quadSize * 0.45f;
+
+            for (float[] corner : CORNERS) {
+                memPutFloat(address, centerX + corner[0] * cos - corner[1] * sin);
+                memPutFloat(address + 4, centerY + corner[0] * sin + corner[1] * cos);
+                memPutFloat(address + 8, 0.0f);
+                memPutFloat(address + 12, (float) column / GRID_SIZE);
+                memPutFloat(address + 16, (float) row / GRID_SIZE);
+                memPutFloat(address + 20, 1.0f);
+                memPutFloat(address + 24, corner[2]);
+                memPutFloat(address + 28, corner[3]);
+                address += VERTEX_SIZE;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        // Initialize glfw window
+        glfwInit();
+
+        // Configure glfw using glfwWindowHint(option, value)
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+
+        // Instantiate the GLFW window
+        final long window = glfwCreateWindow(width, height, "LearnOpenGl", NULL, NULL);
+        if (window == NULL) {
+            System.out.println("Failed to create GLFW window");
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Make the window current. This is needed to load the OpenGL functions
+        glfwMakeContextCurrent(window);
+
+        // Load OpenGL functions
+        try {
+            GL.createCapabilities();
+        } catch (IllegalStateException e) {
+            System.out.println("Failed to initialize OpenGL");
+            e.printStackTrace();
+            System.out.println(e.getCause().getMessage());
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Initialise the framebuffer callback function
+        glfwSetFramebufferSizeCallback(window, FRAMEBUFFER_SIZE_CALLBACK);
+
+        // Create a shader program
+        CustomShader shader = new CustomShader(VERTEX_SHADER_PATH, FRAGMENT_SHADER_PATH);
+        shader.use();
+        shader.setInt("texture1", 0);
+        shader.setInt("texture2", 1);
+
+        // The quads are built in clip space already
+        shader.setFloatMatrix4f(shader.getUniformHandle("transform"), new Matrix4f());
+
+        // Initialise the vertex data, one region holds all quads of a frame
+        final StreamingBuffer vertices = new StreamingBuffer(GL_ARRAY_BUFFER, (long) QUADS * 4 * VERTEX_SIZE);
+        final int vao = glGenVertexArrays();
+        final int ebo = glGenBuffers();
+        setUpVertexData(vao, vertices, ebo);
+        logger.info("Streaming " + QUADS + " quads per frame through a "
+                + (vertices.isPersistent() ? "persistently mapped" : "range mapped") + " buffer");
+
+        final TextureLoader textureLoader = new TextureLoader(2, 4, 8 * 1024 * 1024);
+        final TextureManager textureManager = TextureManager.fromSystemProperty(textureLoader);
+
+        // Render loop
+        while(!glfwWindowShouldClose(window)) {
+            // Input
+            processInput(window);
+
+            // Upload whatever finished decoding
+            textureLoader.processUploads();
+
+            // Rebuild the geometry of this frame
+            writeQuads(memAddress(vertices.begin()), (float) glfwGetTime());
+            vertices.commit();
+
+            // Render
+            glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
+            glClear(GL_COLOR_BUFFER_BIT);
+
+            textureManager.bind(0, CONTAINER_TEXTURE, true);
+            textureManager.bind(1, AWESOMEFACE_TEXTURE, true);
+
+            // Use the shader program
+            shader.use();
+
+            glBindVertexArray(vao);
+            glDrawElementsBaseVertex(GL_TRIANGLES, QUADS * 6, GL_UNSIGNED_INT, 0, (int) (vertices.getOffset() / VERTEX_SIZE));
+
+            // Fence the region only after the draw that reads it
+            vertices.endFrame();
+
+            // Check and call events
+            // Swap the buffers
+            glfwSwapBuffers(window);
+            glfwPollEvents();
+            textureManager.endFrame();
+        }
+
+        logger.info(String.format("Frames: %d, stalled on a fence: %d (%.1f ms in total)",
+                vertices.getFrames(), vertices.getStalls(), vertices.getStalledNanos() / 1_000_000.0));
+
+        // Deallocate all resources when no longer necessary
+        glDeleteVertexArrays(vao);
+        glDeleteBuffers(ebo);
+        vertices.delete();
+        textureManager.delete();
+        textureLoader.close();
+        shader.delete();
+
+        glfwTerminate();
+    }
+}
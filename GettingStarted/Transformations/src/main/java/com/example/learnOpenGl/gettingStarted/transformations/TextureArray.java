@@ -0,0 +1,79 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.glTexSubImage3D;
+import static org.lwjgl.opengl.GL30.GL_TEXTURE_2D_ARRAY;
+import static org.lwjgl.opengl.GL30.glGenerateMipmap;
+import static org.lwjgl.stb.STBImageResize.*;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// Stacks many images as layers of one GL_TEXTURE_2D_ARRAY, shaders pick the image by layer index
+// Layers share a size, images that differ from the first one are resampled to it with stb_image_resize
+// Unlike an atlas the layers can be mipmapped and repeated without bleeding into each other
+public class TextureArray {
+    private final List<TextureImage> images = new ArrayList<>();
+    private int texture = 0;
+
+    // Decodes the image right away, returns its layer or -1 when it could not be loaded
+    int add(ImageSource source, boolean flipVertically) {
+        if (texture != 0) {
+            throw new IllegalStateException("Cannot add to a texture array that has already been built");
+        }
+
+        TextureImage image = TextureLoader.decode(source, flipVertically, 4);
+        if (image == null) {
+            return -1;
+        }
+        images.add(image);
+        return images.size() - 1;
+    }
+
+    void build() {
+        if (images.isEmpty()) {
+            return;
+        }
+        final int width = images.get(0).width;
+        final int height = images.get(0).height;
+
+        texture = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D_ARRAY, texture);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_LINEAR_MIPMAP_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        TextureFormat.allocateArray(width, height, images.size(), TextureFormat.levelCount(width, height), 4, false);
+
+        for (int layer = 0; layer < images.size(); layer++) {
+            TextureImage image = images.get(layer);
+            if (image.width == width && image.height == height) {
+                glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, width, height, 1, GL_RGBA, GL_UNSIGNED_BYTE, image.levels[0]);
+            } else {
+                ByteBuffer resized = memAlloc(width * height * 4);
+                stbir_resize_uint8_srgb(image.levels[0], image.width, image.height, 0, resized, width, height, 0, 4, 3, 0);
+                glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, width, height, 1, GL_RGBA, GL_UNSIGNED_BYTE, resized);
+                memFree(resized);
+            }
+            image.free();
+        }
+        images.clear();
+
+        glGenerateMipmap(GL_TEXTURE_2D_ARRAY);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+        GlStateTracker.current().invalidateTextures();
+    }
+
+    int getTexture() {
+        return texture;
+    }
+
+    void delete() {
+        glDeleteTextures(texture);
+        GlStateTracker.current().textureDeleted(texture);
+        texture = 0;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.joml.Vector4f;
+import org.lwjgl.stb.STBRPContext;
+import org.lwjgl.stb.STBRPNode;
+import org.lwjgl.stb.STBRPRect;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
+import static org.lwjgl.stb.STBRectPack.stbrp_init_target;
+import static org.lwjgl.stb.STBRectPack.stbrp_pack_rects;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memCalloc;
+import static org.lwjgl.system.MemoryUtil.memCopy;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// Packs many images into one RGBA texture with stb_rect_pack so that a whole scene needs a single bind
+// Every image gets a UV transform (scale xy, offset zw) that maps its own 0..1 coordinates into the atlas
+// Images are not mipmapped and keep a gap between them, otherwise filtering would bleed across neighbours
+public class TextureAtlas {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private final int padding;
+    private final List<TextureImage> images = new ArrayList<>();
+    private final List<Vector4f> uvTransforms = new ArrayList<>();
+    private int[] positions = new int[0];
+    private int texture = 0;
+    private int width = 0;
+    private int height = 0;
+
+    TextureAtlas(int padding) {
+        this.padding = padding;
+    }
+
+    // Decodes the image right away, returns its index or -1 when it could not be loaded
+    int add(ImageSource source, boolean flipVertically) {
+        if (texture != 0) {
+            throw new IllegalStateException("Cannot add to an atlas that has already been built");
+        }
+
+        TextureImage image = TextureLoader.decode(source, flipVertically, 4);
+        if (image == null) {
+            return -1;
+        }
+        images.add(image);
+        uvTransforms.add(new Vector4f());
+        return images.size() - 1;
+    }
+
+    // Packs and uploads every added image, grows the atlas until all of them fit
+    void build() {
+        final int maxSize = glGetInteger(GL_MAX_TEXTURE_SIZE);
+
+        long area = 0;
+        for (TextureImage image : images) {
+            area += (long) (image.width + padding) * (image.height + padding);
+        }
+        int size = Integer.highestOneBit((int) Math.max(1, Math.sqrt(area)));
+        while (size <= maxSize && !pack(size)) {
+            size *= 2;
+        }
+        if (size > maxSize) {
+            logger.severe("Images do not fit into a " + maxSize + " texture atlas");
+            freeImages();
+            return;
+        }
+
+        ByteBuffer pixels = memCalloc(width * height * 4);
+        for (int i = 0; i < images.size(); i++) {
+            TextureImage image = images.get(i);
+            final int x = positions[i * 2];
+            final int y = positions[i * 2 + 1];
+            for (int row = 0; row < image.height; row++) {
+                memCopy(memAddress(image.levels[0]) + (long) row * image.width * 4,
+                        memAddress(pixels) + ((long) (y + row) * width + x) * 4, image.width * 4L);
+            }
+        }
+        freeImages();
+
+        texture = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, texture);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        TextureFormat.allocate(width, height, 1, 4, false);
+        TextureFormat.upload(0, width, height, 4, pixels);
+        glBindTexture(GL_TEXTURE_2D, 0);
+        GlStateTracker.current().invalidateTextures();
+        memFree(pixels);
+    }
+
+    int getTexture() {
+        return texture;
+    }
+
+    // Scale in xy and offset in zw, an image coordinate uv lands at uv * xy + zw in the atlas
+    Vector4f getUvTransform(int index) {
+        return uvTransforms.get(index);
+    }
+
+    void delete() {
+        glDeleteTextures(texture);
+        GlStateTracker.current().textureDeleted(texture);
+        texture = 0;
+    }
+
+    // Tries to place every image in a size x size square, shrinking the atlas to the area actually used
+    private boolean pack(int size) {
+        STBRPContext context = STBRPContext.malloc();
+        STBRPNode.Buffer nodes = STBRPNode.malloc(size);
+        STBRPRect.Buffer rects = STBRPRect.malloc(images.size());
+        try {
+            for (int i = 0; i < images.size(); i++) {
+                rects.get(i).set(i, images.get(i).width + padding, images.get(i).height + padding, 0, 0, false);
+            }
+
+            stbrp_init_target(context, size, size, nodes);
+            if (stbrp_pack_rects(context, rects) == 0) {
+                return false;
+            }
+
+            width = 1;
+            height = 1;
+            for (STBRPRect rect : rects) {
+                width = Math.max(width, rect.x() + rect.w());
+                height = Math.max(height, rect.y() + rect.h());
+            }
+            positions = new int[images.size() * 2];
+            for (STBRPRect rect : rects) {
+                TextureImage image = images.get(rect.id());
+                positions[rect.id() * 2] = rect.x();
+                positions[rect.id() * 2 + 1] = rect.y();
+                uvTransforms.get(rect.id()).set(
+                        (float) image.width / width, (float) image.height / height,
+                        (float) rect.x() / width, (float) rect.y() / height);
+            }
+            return true;
+        } finally {
+            rects.free();
+            nodes.free();
+            context.free();
+        }
+    }
+
+    private void freeImages() {
+        for (TextureImage image : images) {
+            image.free();
+        }
+        images.clear();
+    }
+}
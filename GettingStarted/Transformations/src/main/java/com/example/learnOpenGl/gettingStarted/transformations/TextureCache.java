@@ -0,0 +1,193 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.util.lz4.LZ4.*;
+import static org.lwjgl.util.xxhash.XXHash.XXH64;
+
+// Stores decoded textures on disk as LZ4 compressed pixels so later launches can skip stb_image
+// Entries are keyed by the hash of the source file, so editing an image simply produces a new entry
+// Enable by pointing the learnOpenGl.textureCacheDir system property at a writable directory
+//
+// File layout, little endian: magic, width, height, channels, level count,
+// then the uncompressed and compressed size of every level, then the compressed levels back to back
+public class TextureCache {
+    private static final Logger logger = Logger.getAnonymousLogger();
+    public static final String CACHE_DIR_PROPERTY = "learnOpenGl.textureCacheDir";
+    private static final String FILE_EXTENSION = ".ltc";
+
+    // "LTC1", bump the digit whenever the layout changes
+    private static final int MAGIC = 0x3143544C;
+    private static final int HEADER_INTS = 5;
+
+    private final Path directory;
+
+    TextureCache(Path directory) {
+        this.directory = directory;
+    }
+
+    // Returns the cache configured through the system property, or null when caching is disabled
+    static TextureCache fromSystemProperty() {
+        final String directory = System.getProperty(CACHE_DIR_PROPERTY);
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        return new TextureCache(Paths.get(directory));
+    }
+
+    // Hashes the encoded bytes of the image, flipping changes the decoded pixels so it is part of the key
+    static long key(ByteBuffer encoded, boolean flipVertically) {
+        return XXH64(encoded, flipVertically ? 1L : 0L);
+    }
+
+    static long key(ImageSource source, boolean flipVertically) throws IOException {
+        return key(source.read(), flipVertically);
+    }
+
+    // Returns the cached image, or null on a miss or when the entry is unreadable
+    TextureImage load(long key) {
+        final Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer entry = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            TextureImage image = read(entry);
+            if (image != null) {
+                return image;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to read cached texture: " + e.getMessage());
+        }
+
+        // Drop the damaged entry so it gets rebuilt
+        logger.info("Discarding unreadable cached texture: " + file);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warning("Failed to delete cached texture: " + e.getMessage());
+        }
+        return null;
+    }
+
+    void store(long key, TextureImage image) {
+        final int levelCount = image.levels.length;
+        final int headerSize = (HEADER_INTS + 2 * levelCount) * Integer.BYTES;
+
+        long bound = headerSize;
+        for (ByteBuffer level : image.levels) {
+            bound += LZ4_compressBound(level.remaining());
+        }
+
+        ByteBuffer entry = memAlloc((int) bound).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            entry.putInt(MAGIC).putInt(image.width).putInt(image.height).putInt(image.channels).putInt(levelCount);
+
+            int offset = headerSize;
+            for (int level = 0; level < levelCount; level++) {
+                ByteBuffer pixels = image.levels[level];
+                entry.limit(entry.capacity()).position(offset);
+                final int compressedSize = LZ4_compress_default(pixels, entry);
+                if (compressedSize <= 0) {
+                    logger.warning("Failed to compress texture level " + level);
+                    return;
+                }
+
+                final int sizes = (HEADER_INTS + 2 * level) * Integer.BYTES;
+                entry.putInt(sizes, pixels.remaining());
+                entry.putInt(sizes + Integer.BYTES, compressedSize);
+                offset += compressedSize;
+            }
+            entry.position(0).limit(offset);
+
+            // Write to a temporary file first so a crash never leaves a truncated entry behind
+            Files.createDirectories(directory);
+            final Path temporary = Files.createTempFile(directory, Long.toHexString(key), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (entry.hasRemaining()) {
+                    channel.write(entry);
+                }
+            }
+            Files.move(temporary, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Failed to store cached texture: " + e.getMessage());
+        } finally {
+            memFree(entry);
+        }
+    }
+
+    private static TextureImage read(ByteBuffer entry) {
+        if (entry.remaining() < HEADER_INTS * Integer.BYTES || entry.getInt(0) != MAGIC) {
+            return null;
+        }
+
+        final int width = entry.getInt(Integer.BYTES);
+        final int height = entry.getInt(2 * Integer.BYTES);
+        final int channels = entry.getInt(3 * Integer.BYTES);
+        final int levelCount = entry.getInt(4 * Integer.BYTES);
+        if (!isValidImage(width, height, channels, levelCount)
+                || entry.remaining() < (HEADER_INTS + 2L * levelCount) * Integer.BYTES) {
+            return null;
+        }
+
+        // Levels decompressed before a failure are freed on every way out
+        ByteBuffer[] levels = new ByteBuffer[levelCount];
+        boolean complete = false;
+        try {
+            long offset = (HEADER_INTS + 2L * levelCount) * Integer.BYTES;
+            for (int level = 0; level < levelCount; level++) {
+                final int sizes = (HEADER_INTS + 2 * level) * Integer.BYTES;
+                final int size = entry.getInt(sizes);
+                final int compressedSize = entry.getInt(sizes + Integer.BYTES);
+
+                // The upload reads exactly the size of the level, whatever the entry claims
+                final long levelSize = (long) Math.max(1, width >> level) * Math.max(1, height >> level) * channels;
+                if (size != levelSize || compressedSize < 0 || offset + compressedSize > entry.limit()) {
+                    return null;
+                }
+
+                ByteBuffer compressed = entry.duplicate();
+                compressed.position((int) offset).limit((int) offset + compressedSize);
+                levels[level] = memAlloc(size);
+
+                // Also bounds checks the data, a truncated or corrupted entry decompresses to a negative size
+                if (LZ4_decompress_safe(compressed, levels[level]) != size) {
+                    return null;
+                }
+                offset += compressedSize;
+            }
+            complete = true;
+            return new TextureImage(width, height, channels, levels, false);
+        } finally {
+            if (!complete) {
+                for (ByteBuffer level : levels) {
+                    if (level != null) {
+                        memFree(level);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isValidImage(int width, int height, int channels, int levelCount) {
+        return width > 0 && height > 0 && channels >= 1 && channels <= 4
+                && (long) width * height * channels <= Integer.MAX_VALUE
+                && levelCount >= 1 && levelCount <= TextureFormat.levelCount(width, height);
+    }
+
+    Path file(long key) {
+        return directory.resolve(String.format("%016x", key) + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+// Compares decoding the example textures with stb_image against loading them from a warm TextureCache,
+// including hashing the source file. Needs no GL context, the cache sits in front of the upload
+public class TextureCacheBenchmark {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int ITERATIONS = 50;
+
+    // Texture
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
+
+    public static void main(String[] args) throws IOException {
+        final Path cacheDirectory = Files.createTempDirectory("textureCache");
+        final TextureCache cache = new TextureCache(cacheDirectory);
+
+        measure(CONTAINER_TEXTURE, cache);
+        measure(AWESOMEFACE_TEXTURE, cache);
+
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.deleteIfExists(cacheDirectory);
+    }
+
+    private static void measure(ImageSource source, TextureCache cache) throws IOException {
+        // Populate the cache once, then every iteration is a hit
+        final long key = TextureCache.key(source, true);
+        TextureImage image = TextureLoader.decode(source, true, 0);
+        if (image == null) {
+            return;
+        }
+        cache.store(key, image);
+        image.free();
+
+        long decodeTotal = 0;
+        long cacheTotal = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            TextureLoader.decode(source, true, 0).free();
+            decodeTotal += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            cache.load(TextureCache.key(source, true)).free();
+            cacheTotal += System.nanoTime() - start;
+        }
+
+        logger.info(String.format("%s (average of %d): stb_image %.3f ms, texture cache %.3f ms, %d bytes on disk",
+                source, ITERATIONS, decodeTotal / (ITERATIONS * 1_000_000.0),
+                cacheTotal / (ITERATIONS * 1_000_000.0), cacheSize(cache, key)));
+    }
+
+    private static long cacheSize(TextureCache cache, long key) throws IOException {
+        return Files.size(cache.file(key));
+    }
+}
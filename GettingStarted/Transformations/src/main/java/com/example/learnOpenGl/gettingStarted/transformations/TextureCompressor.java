@@ -0,0 +1,179 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import static org.lwjgl.opengl.EXTTextureCompressionS3TC.GL_COMPRESSED_RGBA_S3TC_DXT1_EXT;
+import static org.lwjgl.opengl.EXTTextureCompressionS3TC.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+import static org.lwjgl.opengl.GL30.GL_COMPRESSED_RED_RGTC1;
+import static org.lwjgl.opengl.GL30.GL_COMPRESSED_RG_RGTC2;
+import static org.lwjgl.stb.STBDXT.*;
+import static org.lwjgl.stb.STBImage.stbi_info;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// Offline tool that turns a jpg/png into a DDS file with a full mip chain of BC1, BC3, BC4 or BC5 blocks
+// The levels come from MipGenerator
+// Usage: TextureCompressor <input image> <output.dds> [bc1|bc3|bc4|bc5]
+// Without a format, images with alpha become BC3 and all others BC1. Rows are flipped like the examples load them
+public class TextureCompressor {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int DDS_MAGIC = 0x20534444;
+    private static final int DDSD_CAPS = 0x1;
+    private static final int DDSD_HEIGHT = 0x2;
+    private static final int DDSD_WIDTH = 0x4;
+    private static final int DDSD_PIXELFORMAT = 0x1000;
+    private static final int DDSD_MIPMAPCOUNT = 0x20000;
+    private static final int DDSD_LINEARSIZE = 0x80000;
+    private static final int DDPF_FOURCC = 0x4;
+    private static final int DDSCAPS_COMPLEX = 0x8;
+    private static final int DDSCAPS_TEXTURE = 0x1000;
+    private static final int DDSCAPS_MIPMAP = 0x400000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TextureCompressor <input image> <output.dds> [bc1|bc3|bc4|bc5]");
+            System.exit(-1);
+        }
+
+        final boolean hasAlpha;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer width = stack.mallocInt(1);
+            IntBuffer height = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+            hasAlpha = stbi_info(args[0], width, height, channels) && channels.get(0) == 4;
+        }
+
+        TextureImage image = TextureLoader.decode(ImageSource.fromFile(args[0]), true, 4);
+        if (image == null) {
+            System.exit(1);
+        }
+
+        final String format = args.length > 2 ? args[2] : hasAlpha ? "bc3" : "bc1";
+        compress(image, format, Paths.get(args[1]));
+    }
+
+    // Consumes the RGBA image, its mip chain is generated before every level is compressed
+    static void compress(TextureImage image, String format, Path output) throws IOException {
+        final int internalFormat;
+        final int fourCC;
+        switch (format) {
+            case "bc1":
+                internalFormat = GL_COMPRESSED_RGBA_S3TC_DXT1_EXT;
+                fourCC = CompressedTexture.fourCC("DXT1");
+                break;
+            case "bc3":
+                internalFormat = GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+                fourCC = CompressedTexture.fourCC("DXT5");
+                break;
+            case "bc4":
+                internalFormat = GL_COMPRESSED_RED_RGTC1;
+                fourCC = CompressedTexture.fourCC("ATI1");
+                break;
+            case "bc5":
+                internalFormat = GL_COMPRESSED_RG_RGTC2;
+                fourCC = CompressedTexture.fourCC("ATI2");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+
+        // BC4 and BC5 usually hold data such as normals, only colour formats are filtered as sRGB
+        final boolean srgb = internalFormat == GL_COMPRESSED_RGBA_S3TC_DXT1_EXT || internalFormat == GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+        TextureImage mipmapped = new MipGenerator(ForkJoinPool.commonPool()).generate(image, srgb);
+
+        List<ByteBuffer> levels = new ArrayList<>();
+        try {
+            for (int level = 0; level < mipmapped.levels.length; level++) {
+                levels.add(compressLevel(mipmapped.levels[level], mipmapped.levelWidth(level), mipmapped.levelHeight(level), internalFormat));
+            }
+        } finally {
+            mipmapped.free();
+        }
+
+        final int width = image.width;
+        final int height = image.height;
+
+        ByteBuffer header = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, DDS_MAGIC);
+        header.putInt(4, 124);
+        header.putInt(8, DDSD_CAPS | DDSD_HEIGHT | DDSD_WIDTH | DDSD_PIXELFORMAT | DDSD_MIPMAPCOUNT | DDSD_LINEARSIZE);
+        header.putInt(12, height);
+        header.putInt(16, width);
+        header.putInt(20, levels.get(0).remaining());
+        header.putInt(28, levels.size());
+        header.putInt(76, 32);
+        header.putInt(80, DDPF_FOURCC);
+        header.putInt(84, fourCC);
+        header.putInt(108, DDSCAPS_COMPLEX | DDSCAPS_TEXTURE | DDSCAPS_MIPMAP);
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            for (ByteBuffer compressed : levels) {
+                while (compressed.hasRemaining()) {
+                    channel.write(compressed);
+                }
+                memFree(compressed);
+            }
+        }
+        logger.info("Wrote " + output + ": " + width + "x" + height + " " + format + ", " + levels.size() + " levels");
+    }
+
+    // Compresses an RGBA level block by block, edge blocks repeat the last row and column
+    private static ByteBuffer compressLevel(ByteBuffer rgba, int width, int height, int internalFormat) {
+        ByteBuffer compressed = memAlloc(CompressedTexture.levelSize(internalFormat, width, height));
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            ByteBuffer block = stack.malloc(16 * 4);
+            ByteBuffer red = stack.malloc(16);
+            ByteBuffer redGreen = stack.malloc(16 * 2);
+            final int blockSize = CompressedTexture.levelSize(internalFormat, 4, 4);
+
+            for (int blockY = 0; blockY < height; blockY += 4) {
+                for (int blockX = 0; blockX < width; blockX += 4) {
+                    for (int i = 0; i < 16; i++) {
+                        final int x = Math.min(blockX + i % 4, width - 1);
+                        final int y = Math.min(blockY + i / 4, height - 1);
+                        final int pixel = (y * width + x) * 4;
+                        block.putInt(i * 4, rgba.getInt(pixel));
+                        red.put(i, rgba.get(pixel));
+                        redGreen.put(i * 2, rgba.get(pixel));
+                        redGreen.put(i * 2 + 1, rgba.get(pixel + 1));
+                    }
+
+                    ByteBuffer destination = compressed.duplicate();
+                    destination.position(compressed.position()).limit(compressed.position() + blockSize);
+                    switch (internalFormat) {
+                        case GL_COMPRESSED_RED_RGTC1:
+                            stb_compress_bc4_block(destination, red);
+                            break;
+                        case GL_COMPRESSED_RG_RGTC2:
+                            stb_compress_bc5_block(destination, redGreen);
+                            break;
+                        default:
+                            stb_compress_dxt_block(destination, block, internalFormat == GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, STB_DXT_HIGHQUAL);
+                    }
+                    compressed.position(compressed.position() + blockSize);
+                }
+            }
+        }
+
+        compressed.flip();
+        return compressed;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+import java.util.logging.Logger;
+
+import static java.lang.System.exit;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL42.glGetInternalformati;
+import static org.lwjgl.opengl.GL43.GL_INTERNALFORMAT_PREFERRED;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+// Checks that uploading into the sized format chosen by TextureFormat takes no conversion path, by timing it
+// against an upload into a mismatched internal format (what the examples did before: RGBA pixels into GL_RGB)
+// Exits with 1 when the exact format is slower or the driver reports that it prefers another format
+// Runs headless (e.g. LIBGL_ALWAYS_SOFTWARE=1 xvfb-run) on Mesa llvmpipe
+public class TextureFormatBenchmark {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int ITERATIONS = 50;
+
+    // Timing noise that is tolerated before the exact format counts as slower
+    private static final double TOLERANCE = 0.9;
+
+    // Texture
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
+
+    public static void main(String[] args) {
+        // Initialize glfw with an invisible window, only the context is needed
+        glfwInit();
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE);
+
+        final long window = glfwCreateWindow(1, 1, "LearnOpenGl", NULL, NULL);
+        if (window == NULL) {
+            System.out.println("Failed to create GLFW window");
+            glfwTerminate();
+            exit(-1);
+        }
+        glfwMakeContextCurrent(window);
+        GL.createCapabilities();
+
+        logger.info("Texture storage is " + (TextureFormat.hasImmutableStorage() ? "immutable" : "allocated per level"));
+
+        final boolean containerPassed = measure(CONTAINER_TEXTURE);
+        final boolean awesomefacePassed = measure(AWESOMEFACE_TEXTURE);
+
+        glfwTerminate();
+        if (!containerPassed || !awesomefacePassed) {
+            exit(1);
+        }
+    }
+
+    private static boolean measure(ImageSource source) {
+        TextureImage image = TextureLoader.decode(source, true, 0);
+        if (image == null) {
+            return false;
+        }
+
+        final int exactFormat = TextureFormat.internalFormat(image.channels, false);
+        final int mismatchedFormat = image.channels == 4 ? GL_RGB8 : GL_RGBA8;
+        final double exact = measure(image, exactFormat);
+        final double mismatched = measure(image, mismatchedFormat);
+        image.free();
+
+        boolean passed = exact >= mismatched * TOLERANCE;
+        logger.info(String.format("%s (%d channels): exact format %.1f MB/s, mismatched format %.1f MB/s",
+                source, image.channels, exact, mismatched));
+
+        // The driver can tell which format it really stores, anything else would need a conversion on upload
+        GLCapabilities capabilities = GL.getCapabilities();
+        if (capabilities.OpenGL43 || capabilities.GL_ARB_internalformat_query2) {
+            final int preferred = glGetInternalformati(GL_TEXTURE_2D, exactFormat, GL_INTERNALFORMAT_PREFERRED);
+            if (preferred != exactFormat) {
+                logger.warning(String.format("%s: driver prefers internal format 0x%X over 0x%X", source, preferred, exactFormat));
+                passed = false;
+            }
+        }
+
+        if (!passed) {
+            logger.severe(source + ": uploading in the exact format takes a conversion path");
+        }
+        return passed;
+    }
+
+    // Returns the throughput in MB/s of allocating and filling level 0 in the given internal format
+    private static double measure(TextureImage image, int internalFormat) {
+        final ByteBuffer pixels = image.levels[0];
+        final int format = TextureFormat.format(image.channels);
+        final int[] textures = new int[ITERATIONS];
+        glGenTextures(textures);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        glFinish();
+
+        final long start = System.nanoTime();
+        for (int texture : textures) {
+            glBindTexture(GL_TEXTURE_2D, texture);
+            glTexImage2D(GL_TEXTURE_2D, 0, internalFormat, image.width, image.height, 0, format, GL_UNSIGNED_BYTE, pixels);
+        }
+        glFinish();
+        final long elapsed = System.nanoTime() - start;
+
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+        glBindTexture(GL_TEXTURE_2D, 0);
+        glDeleteTextures(textures);
+
+        return (double) pixels.remaining() * ITERATIONS / (1024 * 1024) / (elapsed / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.stb.STBImage.stbi_image_free;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// Tightly packed 8 bit pixels of a texture, level 0 first followed by any precomputed mip levels
+public class TextureImage {
+    public final int width;
+    public final int height;
+    public final int channels;
+    public final ByteBuffer[] levels;
+
+    // Level 0 straight from stb_image has to go back to stb, everything else comes from memAlloc
+    private final boolean decodedByStb;
+
+    TextureImage(int width, int height, int channels, ByteBuffer[] levels, boolean decodedByStb) {
+        this.width = width;
+        this.height = height;
+        this.channels = channels;
+        this.levels = levels;
+        this.decodedByStb = decodedByStb;
+    }
+
+    int levelWidth(int level) {
+        return Math.max(1, width >> level);
+    }
+
+    int levelHeight(int level) {
+        return Math.max(1, height >> level);
+    }
+
+    // Same image with a different set of levels, level 0 keeps being freed the way it was allocated
+    TextureImage withLevels(ByteBuffer[] levels) {
+        return new TextureImage(width, height, channels, levels, decodedByStb);
+    }
+
+    long size() {
+        long size = 0;
+        for (ByteBuffer level : levels) {
+            size += level.remaining();
+        }
+        return size;
+    }
+
+    void free() {
+        for (int level = 0; level < levels.length; level++) {
+            if (level == 0 && decodedByStb) {
+                stbi_image_free(levels[level]);
+            } else {
+                memFree(levels[level]);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.logging.Logger;
+
+import static java.lang.System.exit;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.stb.STBImage.*;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+// Compares texture upload throughput of passing the decoded pixels straight to glTexImage2D against
+// streaming them through PboUploader. Runs headless (e.g. LIBGL_ALWAYS_SOFTWARE=1 xvfb-run) on Mesa llvmpipe
+public class TextureUploadBenchmark {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int ITERATIONS = 50;
+
+    // Texture
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
+
+    public static void main(String[] args) {
+        // Initialize glfw with an invisible window, only the context is needed
+        glfwInit();
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE);
+
+        final long window = glfwCreateWindow(1, 1, "LearnOpenGl", NULL, NULL);
+        if (window == NULL) {
+            System.out.println("Failed to create GLFW window");
+            glfwTerminate();
+            exit(-1);
+        }
+        glfwMakeContextCurrent(window);
+        GL.createCapabilities();
+
+        final PboUploader uploader = new PboUploader(3, 4 * 1024 * 1024);
+        logger.info("Pixel buffers are " + (uploader.isPersistent() ? "persistently mapped" : "mapped per upload"));
+
+        measure(CONTAINER_TEXTURE, uploader);
+        measure(AWESOMEFACE_TEXTURE, uploader);
+
+        uploader.delete();
+        glfwTerminate();
+    }
+
+    private static void measure(ImageSource source, PboUploader uploader) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer width = stack.mallocInt(1);
+            IntBuffer height = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+
+            ByteBuffer data = source.load(width, height, channels, 0);
+            if (data == null) {
+                logger.severe("Failed to load texture: " + source);
+                return;
+            }
+
+            final int format = channels.get(0) == 4 ? GL_RGBA : GL_RGB;
+            final double direct = measure(data, width.get(0), height.get(0), format, null);
+            final double streamed = measure(data, width.get(0), height.get(0), format, uploader);
+
+            logger.info(String.format("%s (%dx%d, %d channels): glTexImage2D %.1f MB/s, pixel buffer %.1f MB/s",
+                    source, width.get(0), height.get(0), channels.get(0), direct, streamed));
+
+            stbi_image_free(data);
+        }
+    }
+
+    // Returns the throughput in MB/s, the uploader is null for the direct path
+    private static double measure(ByteBuffer data, int width, int height, int format, PboUploader uploader) {
+        final int[] textures = new int[ITERATIONS];
+        glGenTextures(textures);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        glFinish();
+
+        final long start = System.nanoTime();
+        for (int texture : textures) {
+            glBindTexture(GL_TEXTURE_2D, texture);
+            if (uploader == null) {
+                glTexImage2D(GL_TEXTURE_2D, 0, format, width, height, 0, format, GL_UNSIGNED_BYTE, data);
+            } else {
+                glTexImage2D(GL_TEXTURE_2D, 0, format, width, height, 0, format, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+                uploader.upload(texture, 0, width, height, format, data);
+            }
+        }
+        glFinish();
+        final long elapsed = System.nanoTime() - start;
+
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+        glBindTexture(GL_TEXTURE_2D, 0);
+        glDeleteTextures(textures);
+
+        return (double) data.remaining() * ITERATIONS / (1024 * 1024) / (elapsed / 1_000_000_000.0);
+    }
+}
@@ -4,24 +4,18 @@ import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.glfw.GLFWFramebufferSizeCallbackI;
 import org.lwjgl.opengl.GL;
-import org.lwjgl.system.MemoryStack;
 
-import java.io.File;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 import java.util.logging.Logger;
 
 import static java.lang.System.exit;
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 import static org.lwjgl.opengl.GL30.*;
-import static org.lwjgl.stb.STBImage.*;
 import static org.lwjgl.system.MemoryUtil.NULL;
+import static org.lwjgl.system.MemoryUtil.memFree;
 
 public class TransformationsOverTime {
 
@@ -36,22 +30,20 @@ public class TransformationsOverTime {
     private static final URL FRAGMENT_SHADER_PATH = TransformationsOverTime.class.getClassLoader().getResource("shader.fs");
 
     // Texture
-    private static final String CONTAINER_TEXTURE_PATH = new File(TransformationsOverTime.class.getClassLoader().getResource("container.jpg").getFile()).getPath();
-    private static final String AWESOMEFACE_TEXTURE_PATH = new File(TransformationsOverTime.class.getClassLoader().getResource("awesomeface.png").getFile()).getPath();
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
 
     // Define vertex input data
-    private static final float[] VERTICES = {
-            // positions        // colors         // texture coords
-            0.5f,  0.5f, 0.0f, 1.0f, 0.0f, 0.0f, 1.0f, 1.0f, // top right
-            0.5f, -0.5f, 0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 0.0f, // bottom right
-            -0.5f, -0.5f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f, // bottom left
-            -0.5f,  0.5f, 0.0f, 1.0f, 1.0f, 0.0f, 0.0f, 1.0f // top left
-    };
-
-    private static final int[] INDICES = {
-            0, 1, 3, // first triangle
-            1, 2, 3  // second triangle
-    };
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(32, 6)
+                // positions        // colors         // texture coords
+                .position(0.5f, 0.5f, 0.0f).color(1.0f, 0.0f, 0.0f).uv(1.0f, 1.0f) // top right
+                .position(0.5f, -0.5f, 0.0f).color(0.0f, 1.0f, 0.0f).uv(1.0f, 0.0f) // bottom right
+                .position(-0.5f, -0.5f, 0.0f).color(0.0f, 0.0f, 1.0f).uv(0.0f, 0.0f) // bottom left
+                .position(-0.5f, 0.5f, 0.0f).color(1.0f, 1.0f, 0.0f).uv(0.0f, 1.0f) // top left
+                .triangle(0, 1, 3) // first triangle
+                .triangle(1, 2, 3); // second triangle
+    }
 
     // Callbacks
     private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
@@ -67,22 +59,23 @@ public class TransformationsOverTime {
         glBindVertexArray(vao);
 
         glBindBuffer(GL_ARRAY_BUFFER, vbo);
-        glBufferData(GL_ARRAY_BUFFER, VERTICES, GL_STATIC_DRAW);
-
-        // Feed the position vertices to OpenGL
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 8 * Float.BYTES, 0);
-        glEnableVertexAttribArray(0);
+        final VertexBuilder vertices = buildVertices();
 
-        // Feed the color vertices to OpenGl
-        glVertexAttribPointer(1, 3, GL_FLOAT, false, 8 * Float.BYTES, 3 * Float.BYTES);
-        glEnableVertexAttribArray(1);
+        // Reorder the triangles and vertices for the vertex cache before anything is uploaded
+        final Mesh source = Mesh.copyOf(vertices, 8);
+        vertices.close();
+        final Mesh mesh = MeshProcessor.optimize("quad", source);
+        source.free();
 
-        // Feed the texture vertices to OpenGl
-        glVertexAttribPointer(2, 2, GL_FLOAT, false, 8 * Float.BYTES, 6 * Float.BYTES);
-        glEnableVertexAttribArray(2);
+        // Upload the vertices in half the size, the attribute pointers follow from the format
+        final ByteBuffer packed = VertexFormat.COMPACT_POSITION_COLOR_UV.pack(mesh.vertices);
+        glBufferData(GL_ARRAY_BUFFER, packed, GL_STATIC_DRAW);
+        memFree(packed);
+        VertexFormat.COMPACT_POSITION_COLOR_UV.setUpAttributes();
 
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, INDICES, GL_STATIC_DRAW);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.indices, GL_STATIC_DRAW);
+        mesh.free();
 
         // Reset the bind
         glBindBuffer(GL_ARRAY_BUFFER, 0);
@@ -92,45 +85,7 @@ public class TransformationsOverTime {
 //        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
     }
 
-    private static int loadTexture(String path, boolean containsAlpha) throws URISyntaxException {
-        int texture = glGenTextures();
-
-        // Bind the texture to the current context so that all subsequent operations affect THIS instance
-        glBindTexture(GL_TEXTURE_2D, texture);
-
-        // Set the texture wrapping parameters (these are defaults)
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
-
-        // Set the texture filtering parameters (GL_NEAREST is default)
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
-
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer width = stack.ints(0);
-            IntBuffer height = stack.ints(0);
-            IntBuffer nrChannels = stack.ints(0);
-
-            stbi_set_flip_vertically_on_load(true);
-            ByteBuffer data = stbi_load(path, width, height, nrChannels, 0);
-
-            if (data != null) {
-                if (containsAlpha) {
-                    glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB, width.get(0), height.get(0), 0, GL_RGBA, GL_UNSIGNED_BYTE, data);
-                } else {
-                    glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB, width.get(0), height.get(0), 0, GL_RGB, GL_UNSIGNED_BYTE, data);
-                }
-                glGenerateMipmap(GL_TEXTURE_2D);
-                stbi_image_free(data);
-            } else {
-                logger.severe("Failed to load texture: " + path);
-            }
-        }
-
-        return texture;
-    }
-
-    public static void main(String[] args) throws URISyntaxException {
+    public static void main(String[] args) {
         // Initialize glfw window
         glfwInit();
 
@@ -174,26 +129,32 @@ public class TransformationsOverTime {
         final int ebo = glGenBuffers();
         setUpVertexData(vao, vbo, ebo);
 
-        // Initialize the texture
-        final int texture1 = loadTexture(CONTAINER_TEXTURE_PATH, false);
-        final int texture2 = loadTexture(AWESOMEFACE_TEXTURE_PATH, true);
+        // Decode the textures in the background, they are uploaded a few megabytes per frame from the render loop
+        final TextureLoader textureLoader = new TextureLoader(2, 4, 8 * 1024 * 1024);
+
+        // Textures are requested every frame, the manager evicts the ones that stop being used once over budget
+        final TextureManager textureManager = TextureManager.fromSystemProperty(textureLoader);
 
         shader.setInt("texture1", 0);
         shader.setInt("texture2", 1);
 
+        // Resolve the per-frame uniform once instead of looking it up by name every frame
+        final int transformHandle = shader.getUniformHandle("transform");
+
         // Render loop
         while(!glfwWindowShouldClose(window)) {
             // Input
             processInput(window);
 
+            // Upload whatever finished decoding
+            textureLoader.processUploads();
+
             // Render
             glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
             glClear(GL_COLOR_BUFFER_BIT);
 
-            glActiveTexture(GL_TEXTURE0);
-            glBindTexture(GL_TEXTURE_2D, texture1);
-            glActiveTexture(GL_TEXTURE1);
-            glBindTexture(GL_TEXTURE_2D, texture2);
+            textureManager.bind(0, CONTAINER_TEXTURE, true);
+            textureManager.bind(1, AWESOMEFACE_TEXTURE, true);
 
             // Use the shader program
             shader.use();
@@ -207,20 +168,25 @@ public class TransformationsOverTime {
             trans = trans.translate(0.5f, -0.5f, 0.0f);
             trans = trans.rotate((float) glfwGetTime(), new Vector3f(0.0f, 0.0f, 1.0f).normalize());
 
-            shader.setFloatMatrix4f("transform", trans);
+            shader.setFloatMatrix4f(transformHandle, trans);
 
             // Check and call events
             // Swap the buffers
             glfwSwapBuffers(window);
             glfwPollEvents();
+            textureManager.endFrame();
         }
 
+        logger.info(String.format("Textures resident: %d of %d bytes, hits: %d, misses: %d, evictions: %d",
+                textureManager.getResidentBytes(), textureManager.getBudget(),
+                textureManager.getHits(), textureManager.getMisses(), textureManager.getEvictions()));
+
         // Deallocate all resources when no longer necessary
         glDeleteVertexArrays(vao);
         glDeleteBuffers(vbo);
         glDeleteBuffers(ebo);
-        glDeleteTextures(texture1);
-        glDeleteTextures(texture2);
+        textureManager.delete();
+        textureLoader.close();
         shader.delete();
 
         glfwTerminate();
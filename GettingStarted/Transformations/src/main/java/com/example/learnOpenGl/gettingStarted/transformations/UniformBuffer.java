@@ -0,0 +1,49 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BUFFER;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// A uniform buffer object bound to a fixed binding point, shared by every program that binds a block to it
+// Write the contents with begin() once per frame and send them with a single upload()
+public class UniformBuffer {
+    public final int buffer;
+    public final int bindingPoint;
+
+    private final ByteBuffer data;
+    private final Std140Writer writer;
+
+    UniformBuffer(int size, int bindingPoint) {
+        this.bindingPoint = bindingPoint;
+        this.data = memAlloc(size);
+        this.writer = new Std140Writer(data);
+
+        buffer = glGenBuffers();
+        glBindBuffer(GL_UNIFORM_BUFFER, buffer);
+        glBufferData(GL_UNIFORM_BUFFER, size, GL_DYNAMIC_DRAW);
+        glBindBuffer(GL_UNIFORM_BUFFER, 0);
+
+        glBindBufferBase(GL_UNIFORM_BUFFER, bindingPoint, buffer);
+    }
+
+    Std140Writer begin() {
+        return writer.reset();
+    }
+
+    void upload() {
+        data.limit(writer.offset());
+        glBindBuffer(GL_UNIFORM_BUFFER, buffer);
+        glBufferSubData(GL_UNIFORM_BUFFER, 0, data);
+        glBindBuffer(GL_UNIFORM_BUFFER, 0);
+        data.clear();
+    }
+
+    void delete() {
+        glDeleteBuffers(buffer);
+        memFree(data);
+    }
+}
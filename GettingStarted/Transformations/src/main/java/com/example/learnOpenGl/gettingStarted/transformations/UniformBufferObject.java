@@ -0,0 +1,263 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.glfw.GLFWFramebufferSizeCallbackI;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryStack;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.logging.Logger;
+
+import static java.lang.System.exit;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.stb.STBImage.*;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+public class UniformBufferObject {
+
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    // Window size
+    final static int width = 800;
+    final static int height = 600;
+
+    // Vertex and fragment shader
+    private static final URL VERTEX_SHADER_PATH = UniformBufferObject.class.getClassLoader().getResource("shaderWithFrameBlock.vs");
+    private static final URL FRAGMENT_SHADER_PATH = UniformBufferObject.class.getClassLoader().getResource("shader.fs");
+
+    // Uniform buffer binding point of the per-frame data
+    private static final int FRAME_BINDING = 0;
+
+    // Texture
+    private static final ImageSource CONTAINER_TEXTURE = ImageSource.fromResource("container.jpg");
+    private static final ImageSource AWESOMEFACE_TEXTURE = ImageSource.fromResource("awesomeface.png");
+
+    // Define vertex input data
+    private static VertexBuilder buildVertices() {
+        return new VertexBuilder(32, 6)
+                // positions        // colors         // texture coords
+                .position(0.5f, 0.5f, 0.0f).color(1.0f, 0.0f, 0.0f).uv(1.0f, 1.0f) // top right
+                .position(0.5f, -0.5f, 0.0f).color(0.0f, 1.0f, 0.0f).uv(1.0f, 0.0f) // bottom right
+                .position(-0.5f, -0.5f, 0.0f).color(0.0f, 0.0f, 1.0f).uv(0.0f, 0.0f) // bottom left
+                .position(-0.5f, 0.5f, 0.0f).color(1.0f, 1.0f, 0.0f).uv(0.0f, 1.0f) // top left
+                .triangle(0, 1, 3) // first triangle
+                .triangle(1, 2, 3); // second triangle
+    }
+
+    // Callbacks
+    private static final GLFWFramebufferSizeCallbackI FRAMEBUFFER_SIZE_CALLBACK = (long window, int width, int height) -> glViewport(0, 0, width, height);
+
+    // Process user input
+    private static void processInput(long window) {
+        if (glfwGetKey(window, GLFW_KEY_ESCAPE) == GLFW_PRESS) {
+            glfwSetWindowShouldClose(window, true);
+        }
+    }
+
+    private static void setUpVertexData(int vao, int vbo, int ebo) {
+        glBindVertexArray(vao);
+
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        final VertexBuilder vertices = buildVertices();
+
+        // Reorder the triangles and vertices for the vertex cache before anything is uploaded
+        final Mesh source = Mesh.copyOf(vertices, 8);
+        vertices.close();
+        final Mesh mesh = MeshProcessor.optimize("quad", source);
+        source.free();
+        glBufferData(GL_ARRAY_BUFFER, mesh.vertices, GL_STATIC_DRAW);
+
+        // Feed the position vertices to OpenGL
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, 8 * Float.BYTES, 0);
+        glEnableVertexAttribArray(0);
+
+        // Feed the color vertices to OpenGl
+        glVertexAttribPointer(1, 3, GL_FLOAT, false, 8 * Float.BYTES, 3 * Float.BYTES);
+        glEnableVertexAttribArray(1);
+
+        // Feed the texture vertices to OpenGl
+        glVertexAttribPointer(2, 2, GL_FLOAT, false, 8 * Float.BYTES, 6 * Float.BYTES);
+        glEnableVertexAttribArray(2);
+
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.indices, GL_STATIC_DRAW);
+        mesh.free();
+
+        // Reset the bind
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+
+        // Only reset the EBO buffer when the VAO is no longer bound as this bind is stored within the VAO context
+//        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    private static int loadTexture(ImageSource source) throws URISyntaxException {
+        int texture = glGenTextures();
+
+        // Bind the texture to the current context so that all subsequent operations affect THIS instance
+        glBindTexture(GL_TEXTURE_2D, texture);
+
+        // Set the texture wrapping parameters (these are defaults)
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
+
+        // Set the texture filtering parameters (GL_NEAREST is default)
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer width = stack.ints(0);
+            IntBuffer height = stack.ints(0);
+            IntBuffer nrChannels = stack.ints(0);
+
+            stbi_set_flip_vertically_on_load(true);
+            ByteBuffer data = source.load(width, height, nrChannels, 0);
+
+            if (data != null) {
+                // Storage in the exact format of the decoded pixels, so the upload is a plain copy
+                final int channels = nrChannels.get(0);
+                TextureFormat.allocate(width.get(0), height.get(0), TextureFormat.levelCount(width.get(0), height.get(0)), channels, false);
+                TextureFormat.upload(0, width.get(0), height.get(0), channels, data);
+                glGenerateMipmap(GL_TEXTURE_2D);
+                stbi_image_free(data);
+            } else {
+                logger.severe("Failed to load texture: " + source);
+            }
+        }
+
+        return texture;
+    }
+
+    public static void main(String[] args) throws URISyntaxException {
+        // Initialize glfw window
+        glfwInit();
+
+        // Configure glfw using glfwWindowHint(option, value)
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+
+        // Instantiate the GLFW window
+        final long window = glfwCreateWindow(width, height, "LearnOpenGl", NULL, NULL);
+        if (window == NULL) {
+            System.out.println("Failed to create GLFW window");
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Make the window current. This is needed to load the OpenGL functions
+        glfwMakeContextCurrent(window);
+
+        // Load OpenGL functions
+        try {
+            GL.createCapabilities();
+        } catch (IllegalStateException e) {
+            System.out.println("Failed to initialize OpenGL");
+            e.printStackTrace();
+            System.out.println(e.getCause().getMessage());
+            glfwTerminate();
+            exit(-1);
+        }
+
+        // Initialise the framebuffer callback function
+        glfwSetFramebufferSizeCallback(window, FRAMEBUFFER_SIZE_CALLBACK);
+
+        // Create a shader program
+        CustomShader shader = new CustomShader(VERTEX_SHADER_PATH, FRAGMENT_SHADER_PATH);
+        shader.use();
+
+        // Initialise the vertex data
+        final int vao = glGenVertexArrays();
+        final int vbo = glGenBuffers();
+        final int ebo = glGenBuffers();
+        setUpVertexData(vao, vbo, ebo);
+
+        // Initialize the texture
+        final int texture1 = loadTexture(CONTAINER_TEXTURE);
+        final int texture2 = loadTexture(AWESOMEFACE_TEXTURE);
+
+        shader.setInt("texture1", 0);
+        shader.setInt("texture2", 1);
+
+        // Resolve the per-frame uniform once instead of looking it up by name every frame
+        final int transformHandle = shader.getUniformHandle("transform");
+
+        // Shared per-frame data, every program using the Frame block reads it from the same buffer
+        shader.bindUniformBlock("Frame", FRAME_BINDING);
+        final UniformBuffer frameBuffer = new UniformBuffer(shader.getUniformBlockSize("Frame"), FRAME_BINDING);
+        final Matrix4f view = new Matrix4f();
+
+        // Render loop
+        while(!glfwWindowShouldClose(window)) {
+            // Input
+            processInput(window);
+
+            // Upload the per-frame data once, no matter how many programs or draws use it
+            final float time = (float) glfwGetTime();
+            view.scaling(0.75f + 0.25f * (float) Math.sin(time));
+            frameBuffer.begin()
+                    .putMatrix4f(view)
+                    .putFloat(time);
+            frameBuffer.upload();
+
+            // Render
+            glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
+            glClear(GL_COLOR_BUFFER_BIT);
+
+            glActiveTexture(GL_TEXTURE0);
+            glBindTexture(GL_TEXTURE_2D, texture1);
+            glActiveTexture(GL_TEXTURE1);
+            glBindTexture(GL_TEXTURE_2D, texture2);
+
+            // Use the shader program
+            shader.use();
+
+            // Tech not needed as there is only one VBOe but that is not a realistic use case
+            glBindVertexArray(vao);
+
+            // Generate the transformation matrix
+            Matrix4f trans = new Matrix4f();
+            trans
+                    .translate(0.5f, -0.5f, 0.0f)
+                    .rotate((float) glfwGetTime(), new Vector3f(0.0f, 0.0f, 1.0f).normalize());
+
+            shader.setFloatMatrix4f(transformHandle, trans);
+
+            glDrawElements(GL_TRIANGLES, 6, GL_UNSIGNED_INT, 0);
+
+            // Generate the transformation matrix for the second container
+            trans
+                    .translation(-0.5f, 0.5f, 0.0f)
+                    .scale((float) Math.sin(glfwGetTime()));
+
+            shader.setFloatMatrix4f(transformHandle, trans);
+
+            glDrawElements(GL_TRIANGLES, 6, GL_UNSIGNED_INT, 0);
+
+            // Check and call events
+            // Swap the buffers
+            glfwSwapBuffers(window);
+            glfwPollEvents();
+        }
+
+        // Deallocate all resources when no longer necessary
+        glDeleteVertexArrays(vao);
+        glDeleteBuffers(vbo);
+        glDeleteBuffers(ebo);
+        glDeleteTextures(texture1);
+        glDeleteTextures(texture2);
+        frameBuffer.delete();
+        shader.delete();
+
+        glfwTerminate();
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.GL_HALF_FLOAT;
+import static org.lwjgl.opengl.GL33.GL_INT_2_10_10_10_REV;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memGetByte;
+import static org.lwjgl.system.MemoryUtil.memGetFloat;
+import static org.lwjgl.system.MemoryUtil.memGetInt;
+import static org.lwjgl.system.MemoryUtil.memGetShort;
+import static org.lwjgl.system.MemoryUtil.memPutByte;
+import static org.lwjgl.system.MemoryUtil.memPutFloat;
+import static org.lwjgl.system.MemoryUtil.memPutInt;
+import static org.lwjgl.system.MemoryUtil.memPutShort;
+
+// Describes how the attributes of an interleaved vertex are stored, so the same float vertices (as written by
+// VertexBuilder) can be uploaded in a smaller layout and the matching glVertexAttribPointer calls are generated
+// Every attribute starts on a 4 byte boundary, as most hardware fetches attributes in 4 byte units
+public class VertexFormat {
+
+    // The layout the examples use: 8 floats, 32 bytes per vertex
+    static final VertexFormat POSITION_COLOR_UV = new VertexFormat(
+            Attribute.floats(0, 3),
+            Attribute.floats(1, 3),
+            Attribute.floats(2, 2));
+
+    // The same vertices in 16 bytes: half float positions, byte colors and half float texture coords
+    static final VertexFormat COMPACT_POSITION_COLOR_UV = new VertexFormat(
+            Attribute.halfFloats(0, 3),
+            Attribute.normalizedBytes(1, 3),
+            Attribute.halfFloats(2, 2));
+
+    public static class Attribute {
+        final int location;
+        final int components;
+        final int type;
+        final boolean normalized;
+        final int size;
+        private int offset;
+
+        private Attribute(int location, int components, int type, boolean normalized, int size) {
+            this.location = location;
+            this.components = components;
+            this.type = type;
+            this.normalized = normalized;
+            this.size = (size + 3) & ~3;
+        }
+
+        static Attribute floats(int location, int components) {
+            return new Attribute(location, components, GL_FLOAT, false, components * Float.BYTES);
+        }
+
+        // 10 bits of mantissa, about 3 decimal digits for values of any magnitude up to 65504
+        static Attribute halfFloats(int location, int components) {
+            return new Attribute(location, components, GL_HALF_FLOAT, false, components * Short.BYTES);
+        }
+
+        // Values in 0..1 in steps of 1/255, e.g. colors
+        static Attribute normalizedBytes(int location, int components) {
+            return new Attribute(location, components, GL_UNSIGNED_BYTE, true, components);
+        }
+
+        // Up to 4 values in -1..1 in one int, 10 bits for xyz and 2 for w, e.g. normals and tangents
+        // The shader always receives 4 components, missing ones default to 0 and w to 1
+        static Attribute packedNormalized(int location, int components) {
+            return new Attribute(location, components, GL_INT_2_10_10_10_REV, true, Integer.BYTES);
+        }
+
+        int getOffset() {
+            return offset;
+        }
+    }
+
+    private final Attribute[] attributes;
+    private final int stride;
+    private final int sourceFloats;
+
+    VertexFormat(Attribute... attributes) {
+        this.attributes = attributes;
+
+        int offset = 0;
+        int floats = 0;
+        for (Attribute attribute : attributes) {
+            attribute.offset = offset;
+            offset += attribute.size;
+            floats += attribute.components;
+        }
+        stride = offset;
+        sourceFloats = floats;
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    int getAttributeCount() {
+        return attributes.length;
+    }
+
+    Attribute getAttribute(int index) {
+        return attributes[index];
+    }
+
+    // The floats per vertex in the unpacked layout, the components of all attributes in order
+    int getSourceFloats() {
+        return sourceFloats;
+    }
+
+    // Points the attributes at the GL_ARRAY_BUFFER that is currently bound, the VAO records them
+    void setUpAttributes() {
+        for (Attribute attribute : attributes) {
+            final int size = attribute.type == GL_INT_2_10_10_10_REV ? 4 : attribute.components;
+            glVertexAttribPointer(attribute.location, size, attribute.type, attribute.normalized, stride, attribute.offset);
+            glEnableVertexAttribArray(attribute.location);
+        }
+    }
+
+    int vertexCount(ByteBuffer source) {
+        return source.remaining() / (sourceFloats * Float.BYTES);
+    }
+
+    // Converts float vertices into this format, the returned buffer is allocated with memAlloc and freed with memFree
+    ByteBuffer pack(ByteBuffer source) {
+        final int vertexCount = vertexCount(source);
+        final ByteBuffer target = memAlloc(vertexCount * stride);
+
+        long from = memAddress(source);
+        long to = memAddress(target);
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (Attribute attribute : attributes) {
+                packAttribute(attribute, from, to + attribute.offset);
+                from += attribute.components * Float.BYTES;
+            }
+            to += stride;
+        }
+        return target;
+    }
+
+    // Converts vertices in this format back to floats, target needs room for getSourceFloats() per vertex
+    void unpack(ByteBuffer packed, ByteBuffer target) {
+        final int vertexCount = packed.remaining() / stride;
+
+        long from = memAddress(packed);
+        long to = memAddress(target);
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (Attribute attribute : attributes) {
+                unpackAttribute(attribute, from + attribute.offset, to);
+                to += attribute.components * Float.BYTES;
+            }
+            from += stride;
+        }
+    }
+
+    private static void packAttribute(Attribute attribute, long from, long to) {
+        switch (attribute.type) {
+            case GL_HALF_FLOAT:
+                for (int i = 0; i < attribute.components; i++) {
+                    memPutShort(to + i * Short.BYTES, toHalf(memGetFloat(from + i * Float.BYTES)));
+                }
+                break;
+            case GL_UNSIGNED_BYTE:
+                for (int i = 0; i < attribute.components; i++) {
+                    final float value = Math.max(0.0f, Math.min(1.0f, memGetFloat(from + i * Float.BYTES)));
+                    memPutByte(to + i, (byte) Math.round(value * 255.0f));
+                }
+                break;
+            case GL_INT_2_10_10_10_REV:
+                int packed = 0;
+                for (int i = 0; i < 4; i++) {
+                    final float value = i < attribute.components ? memGetFloat(from + i * Float.BYTES) : i == 3 ? 1.0f : 0.0f;
+                    final int max = i < 3 ? 511 : 1;
+                    final int component = Math.round(Math.max(-1.0f, Math.min(1.0f, value)) * max);
+                    packed |= (component & (i < 3 ? 0x3ff : 0x3)) << (i * 10);
+                }
+                memPutInt(to, packed);
+                break;
+            default:
+                for (int i = 0; i < attribute.components; i++) {
+                    memPutFloat(to + i * Float.BYTES, memGetFloat(from + i * Float.BYTES));
+                }
+        }
+    }
+
+    private static void unpackAttribute(Attribute attribute, long from, long to) {
+        for (int i = 0; i < attribute.components; i++) {
+            final float value;
+            switch (attribute.type) {
+                case GL_HALF_FLOAT:
+                    value = fromHalf(memGetShort(from + i * Short.BYTES));
+                    break;
+                case GL_UNSIGNED_BYTE:
+                    value = (memGetByte(from + i) & 0xff) / 255.0f;
+                    break;
+                case GL_INT_2_10_10_10_REV:
+                    // Sign extend the component, then map it the way GL does: c / max, clamped to -1
+                    final int bits = i < 3 ? 10 : 2;
+                    final int component = (memGetInt(from) << (32 - i * 10 - bits)) >> (32 - bits);
+                    value = Math.max(-1.0f, component / (float) (i < 3 ? 511 : 1));
+                    break;
+                default:
+                    value = memGetFloat(from + i * Float.BYTES);
+            }
+            memPutFloat(to + i * Float.BYTES, value);
+        }
+    }
+
+    // IEEE 754 binary16, rounded to nearest even like the hardware conversion
+    static short toHalf(float value) {
+        final int bits = Float.floatToRawIntBits(value);
+        final int sign = (bits >>> 16) & 0x8000;
+        final int floatExponent = (bits >>> 23) & 0xff;
+        int mantissa = bits & 0x7fffff;
+
+        // Infinity stays infinity, NaN stays NaN
+        if (floatExponent == 0xff) {
+            return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+        }
+
+        final int exponent = floatExponent - 127 + 15;
+        if (exponent >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+
+        // Too small for a normal half, shift the mantissa with its implicit bit into a subnormal
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                return (short) sign;
+            }
+            mantissa |= 0x800000;
+            final int shift = 14 - exponent;
+            return (short) (sign | round(mantissa >> shift, mantissa & ((1 << shift) - 1), 1 << (shift - 1)));
+        }
+
+        // A carry out of the mantissa correctly bumps the exponent, up to infinity
+        return (short) (sign | round((exponent << 10) | (mantissa >> 13), mantissa & 0x1fff, 0x1000));
+    }
+
+    static float fromHalf(short half) {
+        final int bits = half & 0xffff;
+        final int sign = (bits & 0x8000) << 16;
+        final int exponent = (bits >>> 10) & 0x1f;
+        final int mantissa = bits & 0x3ff;
+
+        if (exponent == 0) {
+            final float value = mantissa * 0x1p-24f;
+            return sign != 0 ? -value : value;
+        }
+        if (exponent == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+
+    private static int round(int truncated, int remainder, int halfway) {
+        if (remainder > halfway || (remainder == halfway && (truncated & 1) != 0)) {
+            return truncated + 1;
+        }
+        return truncated;
+    }
+}
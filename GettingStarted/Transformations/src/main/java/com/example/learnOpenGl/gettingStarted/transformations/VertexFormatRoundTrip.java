@@ -0,0 +1,130 @@
+package com.example.learnOpenGl.gettingStarted.transformations;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static java.lang.System.exit;
+import static org.lwjgl.opengl.GL33.GL_INT_2_10_10_10_REV;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+// Packs random vertices into the float and compact formats and back, and checks every component stays within the
+// precision of its storage type. Also reports how much smaller the vertices get. Needs no GL context
+// Exits with 1 when any component is off by more than its type allows
+public class VertexFormatRoundTrip {
+    private static final Logger logger = Logger.getAnonymousLogger();
+
+    private static final int VERTICES = 100_000;
+
+    // Largest error of a value in -1..1: half a step of the 10 bit mantissa, of a byte and of a 10 bit snorm
+    private static final float HALF_FLOAT_ERROR = 0x1p-11f;
+    private static final float BYTE_ERROR = 0.5f / 255.0f;
+    private static final float PACKED_ERROR = 0.5f / 511.0f;
+
+    public static void main(String[] args) {
+        final Random random = new Random(42);
+        boolean passed = checkHalfFloats();
+
+        // Positions in -1..1, colors and texture coords in 0..1 like the examples
+        // The float layout is the baseline, it has to give back every value exactly
+        passed &= measure("float", VertexFormat.POSITION_COLOR_UV, random,
+                new float[]{0.0f, 0.0f, 0.0f}, new boolean[]{true, false, false});
+        passed &= measure("compact", VertexFormat.COMPACT_POSITION_COLOR_UV, random,
+                new float[]{HALF_FLOAT_ERROR, BYTE_ERROR, HALF_FLOAT_ERROR}, new boolean[]{true, false, false});
+
+        // Unit normals in one int next to the same compact attributes
+        final VertexFormat withNormals = new VertexFormat(
+                VertexFormat.Attribute.halfFloats(0, 3),
+                VertexFormat.Attribute.normalizedBytes(1, 3),
+                VertexFormat.Attribute.halfFloats(2, 2),
+                VertexFormat.Attribute.packedNormalized(3, 3));
+        passed &= measure("compact with normals", withNormals, random,
+                new float[]{HALF_FLOAT_ERROR, BYTE_ERROR, HALF_FLOAT_ERROR, PACKED_ERROR}, new boolean[]{true, false, false, true});
+
+        if (!passed) {
+            exit(1);
+        }
+    }
+
+    // Values that must survive exactly, including the edges of the half float range
+    private static boolean checkHalfFloats() {
+        final float[] exact = {0.0f, -0.0f, 1.0f, -1.0f, 0.5f, 2048.0f, 65504.0f, 0x1p-14f, 0x1p-24f,
+                Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        boolean passed = true;
+        for (float value : exact) {
+            final float roundTripped = VertexFormat.fromHalf(VertexFormat.toHalf(value));
+            if (Float.floatToIntBits(roundTripped) != Float.floatToIntBits(value)) {
+                logger.severe("Half float " + value + " came back as " + roundTripped);
+                passed = false;
+            }
+        }
+        if (!Float.isNaN(VertexFormat.fromHalf(VertexFormat.toHalf(Float.NaN)))) {
+            logger.severe("Half float NaN did not stay NaN");
+            passed = false;
+        }
+        if (VertexFormat.fromHalf(VertexFormat.toHalf(65520.0f)) != Float.POSITIVE_INFINITY) {
+            logger.severe("Half float overflow did not round to infinity");
+            passed = false;
+        }
+        return passed;
+    }
+
+    // signed marks attributes that hold values in -1..1 instead of 0..1
+    private static boolean measure(String name, VertexFormat format, Random random, float[] tolerances, boolean[] signed) {
+        final int floats = format.getSourceFloats();
+        final ByteBuffer source = memAlloc(VERTICES * floats * Float.BYTES);
+        final ByteBuffer unpacked = memAlloc(VERTICES * floats * Float.BYTES);
+
+        final int[] attributeOf = new int[floats];
+        for (int vertex = 0; vertex < VERTICES; vertex++) {
+            int component = 0;
+            for (int attribute = 0; attribute < format.getAttributeCount(); attribute++) {
+                final float[] values = new float[format.getAttribute(attribute).components];
+                double length = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = signed[attribute] ? random.nextFloat() * 2.0f - 1.0f : random.nextFloat();
+                    length += values[i] * values[i];
+                }
+
+                // Packed attributes hold unit vectors
+                final boolean unit = format.getAttribute(attribute).type == GL_INT_2_10_10_10_REV;
+                for (float value : values) {
+                    source.putFloat(unit ? (float) (value / Math.sqrt(length)) : value);
+                    attributeOf[component++] = attribute;
+                }
+            }
+        }
+        source.flip();
+
+        final ByteBuffer packed = format.pack(source);
+        format.unpack(packed, unpacked);
+
+        final float[] maxErrors = new float[tolerances.length];
+        for (int i = 0; i < VERTICES * floats; i++) {
+            final float error = Math.abs(source.getFloat(i * Float.BYTES) - unpacked.getFloat(i * Float.BYTES));
+            final int attribute = attributeOf[i % floats];
+            maxErrors[attribute] = Math.max(maxErrors[attribute], error);
+        }
+
+        boolean passed = true;
+        final StringBuilder errors = new StringBuilder();
+        for (int attribute = 0; attribute < tolerances.length; attribute++) {
+            errors.append(String.format(" %.6f", maxErrors[attribute]));
+            // A value exactly between two steps may land on either side after float rounding
+            if (maxErrors[attribute] > tolerances[attribute] + Math.ulp(1.0f)) {
+                passed = false;
+            }
+        }
+        logger.info(String.format("%s: %d bytes per vertex instead of %d (%.1fx smaller), largest error per attribute:%s",
+                name, format.getStride(), floats * Float.BYTES, floats * Float.BYTES / (double) format.getStride(), errors));
+        if (!passed) {
+            logger.severe(name + ": round trip error exceeds what the storage types allow");
+        }
+
+        memFree(packed);
+        memFree(unpacked);
+        memFree(source);
+        return passed;
+    }
+}
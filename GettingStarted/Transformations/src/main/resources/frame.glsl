@@ -0,0 +1,5 @@
+// Per-frame data shared by every program, uploaded once per frame through a UniformBuffer
+layout (std140) uniform Frame {
+  mat4 view;
+  float time;
+};
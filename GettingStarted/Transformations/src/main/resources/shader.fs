@@ -10,4 +10,4 @@ out vec4 FragColor;
 
 void main() {
   FragColor = mix(texture(texture1, TexCoord), texture(texture2, TexCoord), 0.2);
-};
\ No newline at end of file
+}
\ No newline at end of file
@@ -13,4 +13,4 @@ void main() {
   gl_Position = transform * vec4(aPos, 1.0);
   ourColor = aColor;
   TexCoord = aTexCoord;
-};
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+#version 330 core
+
+#include "frame.glsl"
+
+layout (location = 0) in vec3 aPos;
+layout (location = 1) in vec3 aColor;
+layout (location = 2) in vec2 aTexCoord;
+
+uniform mat4 transform;
+
+out vec3 ourColor;
+out vec2 TexCoord;
+
+void main() {
+  gl_Position = view * transform * vec4(aPos, 1.0);
+  ourColor = aColor;
+  TexCoord = aTexCoord;
+}